@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.adapters;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.Ability;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.AbilityDetails;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.Stat;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.StatDetails;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.Type;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.TypeDetails;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hand written streaming adapter for the pokemon details response.
+ *
+ * Most of the details payload are the moves, the game indices and the sprites, which we never
+ * use. The reflective adapter of Gson builds objects for all of them before we throw them away.
+ * This adapter reads only abilities, stats, types, weight and base experience and skips every
+ * other value on the token level, without materializing it.
+ *
+ * It only reads. It is registered through its {@link #factory()}, which hands the writes to the
+ * adapter Gson would use without it, so serializing a details response still works.
+ *
+ * It is only used on the non-fused path, when {@code FUSED_JSON_CONVERTER} is off. By default
+ * the details are decoded straight into the domain model by the PokemonDomainConverterFactory
+ * and this adapter never runs.
+ */
+public class PokemonDetailsResponseAdapter extends TypeAdapter<PokemonDetailsResponse> {
+    private static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != PokemonDetailsResponse.class) {
+                return null;
+            }
+
+            TypeAdapter<PokemonDetailsResponse> writer = gson.getDelegateAdapter(
+                    this, TypeToken.get(PokemonDetailsResponse.class));
+            return (TypeAdapter<T>) new PokemonDetailsResponseAdapter(writer);
+        }
+    };
+
+    private final TypeAdapter<PokemonDetailsResponse> writer;
+
+    /**
+     * @return The factory to register with the GsonBuilder
+     */
+    public static TypeAdapterFactory factory() {
+        return FACTORY;
+    }
+
+    private PokemonDetailsResponseAdapter(TypeAdapter<PokemonDetailsResponse> writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(JsonWriter out, PokemonDetailsResponse value) throws IOException {
+        writer.write(out, value);
+    }
+
+    @Override
+    public PokemonDetailsResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        PokemonDetailsResponse response = new PokemonDetailsResponse();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "abilities":
+                    response.setAbilities(readAbilities(in));
+                    break;
+                case "stats":
+                    response.setStats(readStats(in));
+                    break;
+                case "types":
+                    response.setTypes(readTypes(in));
+                    break;
+                case "weight":
+                    response.setWeight(in.nextInt());
+                    break;
+                case "base_experience":
+                    response.setBaseExperience(in.nextInt());
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        return response;
+    }
+
+    private List<Ability> readAbilities(JsonReader in) throws IOException {
+        List<Ability> abilities = new ArrayList<>();
+
+        in.beginArray();
+        while (in.hasNext()) {
+            Ability ability = new Ability();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("is_hidden")) {
+                    ability.setIsHidden(in.nextBoolean());
+                } else if (name.equals("slot")) {
+                    ability.setSlot(in.nextInt());
+                } else if (name.equals("ability")) {
+                    AbilityDetails details = new AbilityDetails();
+                    details.setName(readName(in));
+                    ability.setAbilityDetails(details);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            abilities.add(ability);
+        }
+        in.endArray();
+
+        return abilities;
+    }
+
+    private List<Stat> readStats(JsonReader in) throws IOException {
+        List<Stat> stats = new ArrayList<>();
+
+        in.beginArray();
+        while (in.hasNext()) {
+            Stat stat = new Stat();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("base_stat")) {
+                    stat.setBaseStat(in.nextInt());
+                } else if (name.equals("effort")) {
+                    stat.setEffort(in.nextInt());
+                } else if (name.equals("stat")) {
+                    StatDetails details = new StatDetails();
+                    details.setName(readName(in));
+                    stat.setStatDetails(details);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            stats.add(stat);
+        }
+        in.endArray();
+
+        return stats;
+    }
+
+    private List<Type> readTypes(JsonReader in) throws IOException {
+        List<Type> types = new ArrayList<>();
+
+        in.beginArray();
+        while (in.hasNext()) {
+            Type type = new Type();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("slot")) {
+                    type.setSlot(in.nextInt());
+                } else if (name.equals("type")) {
+                    TypeDetails details = new TypeDetails();
+                    details.setName(readName(in));
+                    type.setTypeDetails(details);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            types.add(type);
+        }
+        in.endArray();
+
+        return types;
+    }
+
+    /*
+        Every named api resource looks like {"name": "...", "url": "..."} and we only need the name
+     */
+    private String readName(JsonReader in) throws IOException {
+        String resourceName = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("name") && in.peek() == JsonToken.STRING) {
+                resourceName = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return resourceName;
+    }
+}
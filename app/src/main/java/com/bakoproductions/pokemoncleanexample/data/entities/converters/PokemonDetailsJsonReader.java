@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.converters;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonNamePool;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Reads a pokeapi details payload straight into the PokemonDetails model.
+ *
+ * It does exactly what the PokemonDetailsResponse entity together with the PokemonDetailsMapper
+ * do, without building the entities first. The mappers are still the reference implementation,
+ * so every rule here (e.g. a stat without details keeps a null name, a type without details is
+ * dropped) follows them.
+ *
+ * The id is not read from the payload, the caller sets the id it requested.
+ */
+public class PokemonDetailsJsonReader {
+    private final PokemonNamePool names = PokemonNamePool.get();
+
+    public PokemonDetails read(JsonReader in) throws IOException {
+        PokemonDetails details = new PokemonDetails();
+        details.setAbilities(new ArrayList<PokemonAbility>());
+        details.setTypes(new ArrayList<String>());
+        details.setStats(new ArrayList<PokemonStat>());
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return details;
+        }
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "abilities":
+                    readAbilities(in, details.getAbilities());
+                    break;
+                case "stats":
+                    readStats(in, details.getStats());
+                    break;
+                case "types":
+                    readTypes(in, details.getTypes());
+                    break;
+                case "weight":
+                    details.setWeight(in.nextInt());
+                    break;
+                case "base_experience":
+                    details.setBaseXP(in.nextInt());
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        return details;
+    }
+
+    private void readAbilities(JsonReader in, ArrayList<PokemonAbility> abilities) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                // The mapper keeps a null ability for a null entry
+                in.nextNull();
+                abilities.add(null);
+                continue;
+            }
+
+            PokemonAbility ability = new PokemonAbility();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("is_hidden")) {
+                    ability.setHidden(in.nextBoolean());
+                } else if (name.equals("ability")) {
+                    ability.setName(readName(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            abilities.add(ability);
+        }
+        in.endArray();
+    }
+
+    private void readStats(JsonReader in, ArrayList<PokemonStat> stats) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            PokemonStat stat = new PokemonStat();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("base_stat")) {
+                    stat.setBase(in.nextInt());
+                } else if (name.equals("effort")) {
+                    stat.setEffort(in.nextInt());
+                } else if (name.equals("stat")) {
+                    stat.setName(readName(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            stats.add(stat);
+        }
+        in.endArray();
+    }
+
+    private void readTypes(JsonReader in, ArrayList<String> types) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            String type = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (name.equals("type") && in.peek() == JsonToken.BEGIN_OBJECT) {
+                    type = readName(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (type != null) {
+                types.add(type);
+            }
+        }
+        in.endArray();
+    }
+
+    /*
+        Every named api resource looks like {"name": "...", "url": "..."} and we only need the name.
+        The names are the same for every pokemon, so we keep the pooled one.
+     */
+    private String readName(JsonReader in) throws IOException {
+        String resourceName = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("name") && in.peek() == JsonToken.STRING) {
+                resourceName = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return names.intern(resourceName);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.converters;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * A Retrofit converter that decodes the pokeapi responses directly into the domain models, so
+ * there is only one object graph per response instead of the entities plus the models.
+ *
+ * It only handles PokemonDetails and PokemonList, every other type is left to the next factory.
+ */
+public class PokemonDomainConverterFactory extends Converter.Factory {
+    public static PokemonDomainConverterFactory create() {
+        return new PokemonDomainConverterFactory();
+    }
+
+    private PokemonDomainConverterFactory() {}
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        if (type == PokemonDetails.class) {
+            return new Converter<ResponseBody, PokemonDetails>() {
+                @Override
+                public PokemonDetails convert(ResponseBody value) throws IOException {
+                    JsonReader reader = new JsonReader(value.charStream());
+                    try {
+                        return new PokemonDetailsJsonReader().read(reader);
+                    } finally {
+                        value.close();
+                    }
+                }
+            };
+        }
+
+        if (type == PokemonList.class) {
+            return new Converter<ResponseBody, PokemonList>() {
+                @Override
+                public PokemonList convert(ResponseBody value) throws IOException {
+                    JsonReader reader = new JsonReader(value.charStream());
+                    try {
+                        return new PokemonListJsonReader().read(reader);
+                    } finally {
+                        value.close();
+                    }
+                }
+            };
+        }
+
+        return null;
+    }
+}
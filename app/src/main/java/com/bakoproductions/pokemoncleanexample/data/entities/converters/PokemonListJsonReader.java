@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.converters;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.LinkMapper;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads a pokeapi list payload straight into the PokemonList model, following the rules of the
+ * PokemonListMapper which is the reference implementation.
+ */
+public class PokemonListJsonReader {
+    private final LinkMapper linkMapper = new LinkMapper();
+
+    public PokemonList read(JsonReader in) throws IOException {
+        PokemonList result = new PokemonList();
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return result;
+        }
+
+        boolean hasResults = false;
+        String next = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (name.equals("results")) {
+                hasResults = true;
+                readResults(in, result);
+            } else if (name.equals("next")) {
+                next = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // Same as the mapper, a page without results has no next link either
+        if (hasResults) {
+            result.setNextLink(linkMapper.transform(next));
+        }
+
+        return result;
+    }
+
+    private void readResults(JsonReader in, PokemonList result) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            Pokemon pokemon = new Pokemon();
+            String url = null;
+
+            if (in.peek() == JsonToken.NULL) {
+                // The mapper would fail on a null item, we keep an empty pokemon instead
+                in.nextNull();
+            } else {
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else if (name.equals("name")) {
+                        pokemon.setName(in.nextString());
+                    } else if (name.equals("url")) {
+                        url = in.nextString();
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            }
+
+            pokemon.setUrl(linkMapper.transform(url));
+            result.getPokemonList().add(pokemon);
+        }
+        in.endArray();
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.bakoproductions.pokemoncleanexample.data.entities.mappers;
 
+import com.bakoproductions.pokemoncleanexample.data.rest.PokemonService;
 import com.bakoproductions.pokemoncleanexample.domain.models.Link;
 
 /**
@@ -24,13 +25,14 @@ import com.bakoproductions.pokemoncleanexample.domain.models.Link;
 
 public class LinkMapper {
     /**
-     * Transforms a string url to a Link object
+     * Transforms a string url to a Link object. The api urls are turned to their canonical
+     * https form, so following them never costs a redirect.
      * @param url A web url
      * @return The class that holds that url
      */
     public Link transform(String url) {
         Link link = new Link();
-        link.setLinkUrl(url);
+        link.setLinkUrl(PokemonService.canonicalUrl(url));
         return link;
     }
 }
@@ -27,6 +27,8 @@ import java.util.List;
  */
 
 public class PokemonAbilitiesMapper {
+    private final PokemonNamePool names = PokemonNamePool.get();
+
     public PokemonAbility transform(Ability response) {
         if (response == null) {
             return null;
@@ -36,7 +38,7 @@ public class PokemonAbilitiesMapper {
 
         ability.setHidden(response.getIsHidden());
         if (response.getAbilityDetails() != null) {
-            ability.setName(response.getAbilityDetails().getName());
+            ability.setName(names.intern(response.getAbilityDetails().getName()));
         }
 
         return ability;
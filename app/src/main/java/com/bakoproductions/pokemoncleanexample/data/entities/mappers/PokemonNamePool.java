@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.entities.mappers;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pool of the type, ability and stat names. Every response repeats the same few hundred names,
+ * so the mappers and the readers keep the pooled instance of every name they read and all the
+ * details share them.
+ *
+ * We don't use String.intern(), its pool is shared with the whole VM and it is slow on the
+ * older Android versions. The pool stops growing at MAX_NAMES, the names after that are
+ * just not shared.
+ */
+public class PokemonNamePool {
+    // There are about 20 types, 6 stats and a few hundred abilities
+    static final int MAX_NAMES = 4096;
+
+    private static final PokemonNamePool INSTANCE = new PokemonNamePool(MAX_NAMES);
+
+    public static PokemonNamePool get() {
+        return INSTANCE;
+    }
+
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+    private final int maxNames;
+
+    PokemonNamePool(int maxNames) {
+        this.maxNames = maxNames;
+    }
+
+    /**
+     * @param name Any name or null
+     * @return The pooled instance of the name, or the name itself if the pool is full
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String pooled = names.get(name);
+        if (pooled != null) {
+            return pooled;
+        }
+
+        // Two threads may both pass the check, so the pool may end up a little over the bound
+        if (names.size() >= maxNames) {
+            return name;
+        }
+
+        pooled = names.putIfAbsent(name, name);
+        return pooled != null ? pooled : name;
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -27,6 +27,8 @@ import java.util.List;
  */
 
 public class PokemonStatsMapper {
+    private final PokemonNamePool names = PokemonNamePool.get();
+
     public PokemonStat transform(Stat response) {
         if (response == null) {
             return null;
@@ -34,7 +36,7 @@ public class PokemonStatsMapper {
 
         PokemonStat stat = new PokemonStat();
         if (response.getStatDetails() != null) {
-            stat.setName(response.getStatDetails().getName());
+            stat.setName(names.intern(response.getStatDetails().getName()));
         }
         stat.setBase(response.getBaseStat());
         stat.setEffort(response.getEffort());
@@ -26,13 +26,15 @@ import java.util.List;
  */
 
 public class PokemonTypeMapper {
+    private final PokemonNamePool names = PokemonNamePool.get();
+
     public String transform(Type response) {
         if (response == null) {
             return null;
         }
 
         if (response.getTypeDetails() != null) {
-            return response.getTypeDetails().getName();
+            return names.intern(response.getTypeDetails().getName());
         } else {
             return null;
         }
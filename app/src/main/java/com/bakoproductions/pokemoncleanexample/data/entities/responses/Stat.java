@@ -39,7 +39,7 @@ public class Stat {
     }
 
     public void setStatDetails(StatDetails statDetails) {
-        this.statDetails = this.statDetails;
+        this.statDetails = statDetails;
     }
 
     public Integer getEffort() {
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps track of the requests that are currently in flight, keyed by what they request.
+ *
+ * The first caller of a key makes the actual request, every other caller that comes before it
+ * completes just joins it and gets the same result. This way a double tap or a rotation never
+ * sends two identical requests.
+ *
+ * Every caller can also take an interest handle. Cancelling it means the caller doesn't wait for
+ * the result anymore, and once nobody waits the request itself is cancelled.
+ *
+ * An interest may carry the listener of its caller. When the request completes the result is
+ * given only to the listeners that still wait for it, so it reaches exactly who asked for it.
+ *
+ * @param <L> The type of the listeners
+ */
+public class InFlightRequests<L> {
+    private final HashMap<String, Flight<L>> flights = new HashMap<>();
+    private long coalescedRequests;
+
+    /**
+     * Joins the request of the given key
+     * @param key What is requested, e.g. the pokemon id
+     * @return true if the caller is the first one and has to make the request, false if the
+     *         request is already in flight
+     */
+    public synchronized boolean join(String key) {
+        Flight<L> flight = flights.get(key);
+
+        if (flight == null) {
+            flights.put(key, new Flight<L>());
+            return true;
+        }
+
+        flight.callers++;
+        coalescedRequests++;
+        return false;
+    }
+
+    /**
+     * Same as join(...) followed by interest(key, listener), in one step. A request that
+     * completes between the two steps would never give its result to the listener, so whoever
+     * waits with a listener joins through here.
+     * @param key What is requested, e.g. the pokemon id
+     * @param listener Who waits for the result
+     * @return Whether the caller has to make the request and the handle that withdraws it
+     */
+    public synchronized Joined joinWithInterest(String key, L listener) {
+        boolean first = join(key);
+        return new Joined(first, interest(key, listener));
+    }
+
+    /**
+     * Starts a request of the given key only if there is none in flight. Unlike join(...) the
+     * caller never waits for somebody else's request, so nothing is coalesced.
+     * @param key What is requested
+     * @return true if the caller has to make the request
+     */
+    public synchronized boolean start(String key) {
+        if (flights.containsKey(key)) {
+            return false;
+        }
+
+        flights.put(key, new Flight<L>());
+        return true;
+    }
+
+    /**
+     * Must be called by the caller that made the request when it completes, before the result
+     * is delivered, so that any later caller makes a new request
+     * @param key What was requested
+     * @return How many callers were waiting for the result, including the one that made it
+     */
+    public synchronized int complete(String key) {
+        Flight<L> flight = flights.remove(key);
+        return flight != null ? flight.callers : 0;
+    }
+
+    /**
+     * Same as complete(...), for the requests whose callers wait with a listener
+     * @param key What was requested
+     * @return The listeners of the callers that still wait for the result
+     */
+    public synchronized List<L> completeForListeners(String key) {
+        Flight<L> flight = flights.remove(key);
+        return flight != null ? new ArrayList<>(flight.listeners) : new ArrayList<L>();
+    }
+
+    /**
+     * Attaches the actual request to the key, so it can be cancelled when nobody waits for it
+     * @param key What is requested
+     * @param request The handle of the request that was made for it
+     */
+    public synchronized void attach(String key, Cancellable request) {
+        Flight<L> flight = flights.get(key);
+        if (flight != null) {
+            flight.request = request;
+        }
+    }
+
+    /**
+     * Must be called by every caller right after join(...) or start(...)
+     * @param key What is requested
+     * @return The handle that withdraws the caller from the request in flight. Nothing happens
+     *         if the request has already completed.
+     */
+    public synchronized Cancellable interest(String key) {
+        return new Interest(key, flights.get(key), null);
+    }
+
+    /**
+     * Same as interest(...), with the listener that is given the result
+     * @param key What is requested
+     * @param listener Who waits for the result
+     * @return The handle that withdraws the caller and its listener from the request in flight
+     */
+    public synchronized Cancellable interest(String key, L listener) {
+        Flight<L> flight = flights.get(key);
+        if (flight != null && listener != null) {
+            flight.listeners.add(listener);
+        }
+
+        return new Interest(key, flight, listener);
+    }
+
+    public synchronized boolean isInFlight(String key) {
+        return flights.containsKey(key);
+    }
+
+    /**
+     * @return How many requests were not sent because an identical one was already in flight
+     */
+    public synchronized long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    /**
+     * What joinWithInterest(...) gives back to its caller
+     */
+    public static class Joined {
+        private final boolean first;
+        private final Cancellable interest;
+
+        Joined(boolean first, Cancellable interest) {
+            this.first = first;
+            this.interest = interest;
+        }
+
+        /**
+         * @return true if the caller is the first one and has to make the request
+         */
+        public boolean isFirst() {
+            return first;
+        }
+
+        /**
+         * @return The handle that withdraws the caller and its listener from the request
+         */
+        public Cancellable getInterest() {
+            return interest;
+        }
+    }
+
+    private static class Flight<L> {
+        int callers = 1;
+        Cancellable request;
+        final ArrayList<L> listeners = new ArrayList<>(1);
+    }
+
+    private class Interest implements Cancellable {
+        private final String key;
+        private final Flight<L> flight;
+        private final L listener;
+        private boolean cancelled;
+
+        Interest(String key, Flight<L> flight, L listener) {
+            this.key = key;
+            this.flight = flight;
+            this.listener = listener;
+        }
+
+        @Override
+        public void cancel() {
+            Cancellable request;
+
+            synchronized (InFlightRequests.this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+
+                if (flight != null && listener != null) {
+                    flight.listeners.remove(listener);
+                }
+
+                // Only the flight we joined, a later one with the same key is none of our business
+                if (flight == null || flights.get(key) != flight || --flight.callers > 0) {
+                    return;
+                }
+
+                flights.remove(key);
+                request = flight.request;
+            }
+
+            if (request != null) {
+                request.cancel();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (InFlightRequests.this) {
+                return cancelled;
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonDetailsMapper;
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonListMapper;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonListResponse;
+import com.bakoproductions.pokemoncleanexample.data.rest.HedgedCall;
+import com.bakoproductions.pokemoncleanexample.data.rest.MainThreadExecutor;
+import com.bakoproductions.pokemoncleanexample.data.rest.MappedCall;
+import com.bakoproductions.pokemoncleanexample.data.rest.PokemonClient;
+import com.bakoproductions.pokemoncleanexample.data.rest.PokemonDomainClient;
+import com.bakoproductions.pokemoncleanexample.data.rest.PokemonService;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import retrofit2.Call;
+
+/**
+ * Creates the calls of the repository, which always deliver the domain models.
+ *
+ * When fused is true the responses are decoded straight into the models by the
+ * PokemonDomainConverterFactory. Otherwise they are decoded into the GSON entities and then
+ * transformed by the mappers.
+ *
+ * When hedged is true the details the user waits for are requested a second time if the first
+ * request is slower than the p95 of the endpoint.
+ *
+ * The models are built off the main thread, every call hands them to its callback on the main
+ * thread only once they are finished. The JSON is always parsed on the network threads. The
+ * mappers of the GSON entities then run on the MappingExecutor, while the fused models, which
+ * have nothing left to map, go from the network thread straight to the main thread.
+ */
+class PokemonCalls {
+    private static final MappedCall.Mapper<PokemonList, PokemonList> FUSED_LIST_MAPPER =
+            MappedCall.identity();
+
+    private static final MappedCall.Mapper<PokemonListResponse, PokemonList> LIST_MAPPER =
+            new MappedCall.Mapper<PokemonListResponse, PokemonList>() {
+                @Override
+                public PokemonList transform(PokemonListResponse body) {
+                    return new PokemonListMapper().transform(body);
+                }
+            };
+
+    private final boolean fused;
+    private final boolean hedged;
+    private PokemonClient client;
+    private PokemonDomainClient domainClient;
+
+    PokemonCalls(boolean fused, boolean hedged) {
+        this.fused = fused;
+        this.hedged = hedged;
+
+        if (fused) {
+            domainClient = PokemonService.createDomainClient(PokemonDomainClient.class);
+        } else {
+            client = PokemonService.createClient(PokemonClient.class);
+        }
+    }
+
+    Call<PokemonList> getPokemonList(int limit) {
+        if (fused) {
+            return onMainThread(domainClient.getPokemonList(limit), FUSED_LIST_MAPPER);
+        }
+
+        return onMainThread(client.getPokemonList(limit), LIST_MAPPER);
+    }
+
+    Call<PokemonList> getPokemonList(String url) {
+        if (fused) {
+            return onMainThread(domainClient.getPokemonList(url), FUSED_LIST_MAPPER);
+        }
+
+        return onMainThread(client.getPokemonList(url), LIST_MAPPER);
+    }
+
+    /**
+     * The details the user is waiting for, hedged if enabled
+     */
+    Call<PokemonDetails> getUserPokemonDetails(String id) {
+        Call<PokemonDetails> call = getPokemonDetails(id);
+
+        if (!hedged) {
+            return call;
+        }
+
+        return new HedgedCall<>(call, PokemonService.getHedgeDelayMillis(call.request()));
+    }
+
+    Call<PokemonDetails> getPokemonDetails(final String id) {
+        if (fused) {
+            // The payload doesn't know what id we asked for
+            return onMainThread(
+                    domainClient.getPokemonDetails(id),
+                    new MappedCall.Mapper<PokemonDetails, PokemonDetails>() {
+                        @Override
+                        public PokemonDetails transform(PokemonDetails body) {
+                            body.setId(id);
+                            return body;
+                        }
+                    });
+        }
+
+        return onMainThread(
+                client.getPokemonDetails(id),
+                new MappedCall.Mapper<PokemonDetailsResponse, PokemonDetails>() {
+                    @Override
+                    public PokemonDetails transform(PokemonDetailsResponse body) {
+                        return new PokemonDetailsMapper().transform(id, body);
+                    }
+                });
+    }
+
+    /*
+        The mapper runs where Retrofit delivers, the MappingExecutor or the network thread for
+        the fused models, and the callback gets the finished model on the main thread
+     */
+    private static <F, T> Call<T> onMainThread(Call<F> call, MappedCall.Mapper<F, T> mapper) {
+        return new MappedCall<>(call, mapper, MainThreadExecutor.get());
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.ErrorMapper;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonDetailsError;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsCallback;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Fetches the details of a batch of pokemon straight into the cache.
+ *
+ * Only a few requests of the batch are handed to the OkHttp Dispatcher at a time. The Dispatcher
+ * runs its calls in the order they were enqueued, so if we enqueued the whole batch at once a
+ * pokemon that the user just opened would wait behind all of them.
+ *
+ * Cancelling the prefetcher drops the pending pokemon and withdraws it from the running requests.
+ * A running request goes on only if somebody else joined it in the meantime, and its result is
+ * given to their callbacks.
+ *
+ * The prefetcher is finished when every request of the batch is done or when it is cancelled,
+ * whichever comes first.
+ */
+class PokemonDetailsPrefetcher implements Cancellable {
+    private final PokemonCalls calls;
+    private final InFlightRequests<PokemonDetailsCallback> inFlight;
+    private final PokemonDetailsDataCache dataCache;
+    private final int maxConcurrentRequests;
+
+    private final LinkedList<String> pending = new LinkedList<>();
+    private final HashMap<String, Cancellable> interests = new HashMap<>();
+    private int running;
+    private boolean cancelled;
+
+    private Runnable onFinished;
+    private boolean finished;
+
+    /**
+     * @param calls Creates the requests
+     * @param inFlight The requests in flight, shared with the single details requests
+     * @param dataCache Where the fetched details are stored
+     * @param maxConcurrentRequests How many requests of this batch may run at the same time
+     */
+    PokemonDetailsPrefetcher(PokemonCalls calls, InFlightRequests<PokemonDetailsCallback> inFlight,
+                             PokemonDetailsDataCache dataCache, int maxConcurrentRequests) {
+        this.calls = calls;
+        this.inFlight = inFlight;
+        this.dataCache = dataCache;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * @param ids The pokemon whose details we want in the cache
+     * @param onFinished Runs once, when the prefetcher is finished
+     * @return The handle that cancels the prefetching
+     */
+    Cancellable prefetch(List<String> ids, Runnable onFinished) {
+        synchronized (this) {
+            this.onFinished = onFinished;
+            pending.addAll(ids);
+            enqueueNext();
+        }
+
+        // Everything may have been cached or requested by somebody else already
+        finishIfDone();
+        return this;
+    }
+
+    @Override
+    public void cancel() {
+        ArrayList<Cancellable> withdrawn;
+
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+
+            cancelled = true;
+            pending.clear();
+            withdrawn = new ArrayList<>(interests.values());
+        }
+
+        for (int i=0;i<withdrawn.size();i++) {
+            withdrawn.get(i).cancel();
+        }
+
+        finishIfDone();
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private synchronized void enqueueNext() {
+        while (running < maxConcurrentRequests && !pending.isEmpty()) {
+            String id = pending.poll();
+
+            // Nothing to do if we already have it or somebody else is requesting it right now
+            if (dataCache.hasPokemonDetails(id) || !inFlight.start(id)) {
+                continue;
+            }
+
+            running++;
+            interests.put(id, inFlight.interest(id));
+            enqueue(id);
+        }
+    }
+
+    private void onRequestFinished(String id) {
+        synchronized (this) {
+            running--;
+            interests.remove(id);
+            enqueueNext();
+        }
+
+        finishIfDone();
+    }
+
+    /*
+        Whoever waits for us may start more work, so it is told outside of the lock
+     */
+    private void finishIfDone() {
+        Runnable listener;
+
+        synchronized (this) {
+            boolean done = cancelled || (running == 0 && pending.isEmpty());
+            if (finished || onFinished == null || !done) {
+                return;
+            }
+
+            finished = true;
+            listener = onFinished;
+        }
+
+        listener.run();
+    }
+
+    private void enqueue(final String id) {
+        Call<PokemonDetails> call = calls.getPokemonDetails(id);
+        inFlight.attach(id, new CallCancellable(call));
+
+        call.enqueue(new Callback<PokemonDetails>() {
+            @Override
+            public void onResponse(Call<PokemonDetails> call, Response<PokemonDetails> response) {
+                onRequestFinished(id);
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                // If anybody joined this request while it was in flight they are waiting
+                // for the result with their callback
+                List<PokemonDetailsCallback> joined = inFlight.completeForListeners(id);
+
+                if (response.isSuccessful()) {
+                    PokemonDetails details = response.body();
+                    dataCache.addPokemonDetails(details);
+                    PokemonRepository.deliverPokemonDetails(joined, details);
+                } else if (!joined.isEmpty()) {
+                    PokemonRepository.deliverPokemonDetailsError(
+                            joined,
+                            new ErrorMapper().transform(new PokemonDetailsError(), response)
+                    );
+                }
+            }
+
+            @Override
+            public void onFailure(Call<PokemonDetails> call, Throwable t) {
+                onRequestFinished(id);
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                List<PokemonDetailsCallback> joined = inFlight.completeForListeners(id);
+                if (!joined.isEmpty()) {
+                    PokemonRepository.deliverPokemonDetailsError(
+                            joined,
+                            new ErrorMapper().transform(new PokemonDetailsError(), t)
+                    );
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import java.util.List;
+
+import okhttp3.HttpUrl;
+
+/**
+ * The whole list of pokemon, kept as compact as possible: one array with the names and one with
+ * the ids. Every pokemon url is the list url followed by the id, so we don't keep them.
+ *
+ * The pages are served with the same links the api uses (list url?offset=..&limit=..), so a page
+ * link can be followed either here or on the network.
+ */
+class PokemonIndex {
+    private static final String OFFSET = "offset";
+    private static final String LIMIT = "limit";
+
+    private final HttpUrl listUrl;
+    private final String[] names;
+    private final int[] ids;
+
+    /**
+     * @param listUrl The url of the pokemon list, e.g. https://pokeapi.co/api/v2/pokemon/
+     * @param pokemon Every pokemon of the list, in the order of the api. Any pokemon without a
+     *                numeric id is left out.
+     */
+    PokemonIndex(String listUrl, List<Pokemon> pokemon) {
+        this.listUrl = HttpUrl.parse(listUrl);
+
+        String[] names = new String[pokemon.size()];
+        int[] ids = new int[pokemon.size()];
+        int size = 0;
+
+        for (int i=0;i<pokemon.size();i++) {
+            Pokemon item = pokemon.get(i);
+            int id = parseNumber(item.getUrl() != null && item.getUrl().isValid() ? item.getId() : null);
+
+            if (id >= 0) {
+                names[size] = item.getName();
+                ids[size] = id;
+                size++;
+            }
+        }
+
+        if (size < names.length) {
+            String[] trimmedNames = new String[size];
+            int[] trimmedIds = new int[size];
+            System.arraycopy(names, 0, trimmedNames, 0, size);
+            System.arraycopy(ids, 0, trimmedIds, 0, size);
+            names = trimmedNames;
+            ids = trimmedIds;
+        }
+
+        this.names = names;
+        this.ids = ids;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @param offset The position of the first pokemon of the page
+     * @param limit How many pokemon the page has at most, it must be positive
+     * @return The page with a link to the next one. After the last page the link has no url,
+     *         exactly as the api does.
+     */
+    PokemonList page(int offset, int limit) {
+        PokemonList page = new PokemonList();
+        int end = (int) Math.min((long) offset + limit, names.length);
+
+        for (int i=offset;i<end;i++) {
+            Link url = new Link();
+            url.setLinkUrl(listUrl + Integer.toString(ids[i]) + "/");
+
+            Pokemon pokemon = new Pokemon();
+            pokemon.setName(names[i]);
+            pokemon.setUrl(url);
+            page.getPokemonList().add(pokemon);
+        }
+
+        Link nextLink = new Link();
+        if (end < names.length) {
+            nextLink.setLinkUrl(listUrl.newBuilder()
+                    .addQueryParameter(OFFSET, Integer.toString(end))
+                    .addQueryParameter(LIMIT, Integer.toString(limit))
+                    .build()
+                    .toString());
+        }
+        page.setNextLink(nextLink);
+
+        return page;
+    }
+
+    /**
+     * @param link A page link, either made by this index or returned by the api
+     * @return The page of the link or null if the link is not a page of this list
+     */
+    PokemonList page(Link link) {
+        HttpUrl url = link != null && link.isValid() ? HttpUrl.parse(link.getLinkUrl()) : null;
+
+        if (url == null
+                || !url.host().equals(listUrl.host())
+                || !url.encodedPath().equals(listUrl.encodedPath())) {
+            return null;
+        }
+
+        int offset = parseNumber(url.queryParameter(OFFSET));
+        int limit = parseNumber(url.queryParameter(LIMIT));
+        if (offset < 0 || limit <= 0) {
+            return null;
+        }
+
+        return page(offset, limit);
+    }
+
+    /*
+        Parses a non negative int, anything else is -1
+     */
+    private static int parseNumber(String value) {
+        if (value == null || value.isEmpty() || value.length() > 9) {
+            return -1;
+        }
+
+        for (int i=0;i<value.length();i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return -1;
+            }
+        }
+
+        return Integer.parseInt(value);
+    }
+}
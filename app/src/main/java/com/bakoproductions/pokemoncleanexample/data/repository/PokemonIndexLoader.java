@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.ErrorMapper;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonListError;
+
+import java.util.ArrayList;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Fetches the whole list of pokemon in a few large pages and builds the PokemonIndex from it.
+ *
+ * The pages are requested one after the other by following the next links, until the api
+ * says there is no next page.
+ */
+class PokemonIndexLoader implements Cancellable {
+    interface Listener {
+        void onIndexLoaded(PokemonIndex index);
+        void onIndexError(PokemonListError error);
+    }
+
+    private final PokemonCalls calls;
+    private final String listUrl;
+    private final int pageLimit;
+    private final Listener listener;
+
+    private final ArrayList<Pokemon> pokemon = new ArrayList<>();
+    private Call<PokemonList> call;
+    private boolean cancelled;
+
+    /**
+     * @param calls Creates the requests
+     * @param listUrl The url of the pokemon list
+     * @param pageLimit How many pokemon we ask for with every request
+     * @param listener Gets the index or the error
+     */
+    PokemonIndexLoader(PokemonCalls calls, String listUrl, int pageLimit, Listener listener) {
+        this.calls = calls;
+        this.listUrl = listUrl;
+        this.pageLimit = pageLimit;
+        this.listener = listener;
+    }
+
+    Cancellable load() {
+        enqueue(calls.getPokemonList(pageLimit));
+        return this;
+    }
+
+    @Override
+    public void cancel() {
+        Call<PokemonList> running;
+
+        synchronized (this) {
+            cancelled = true;
+            running = call;
+        }
+
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void enqueue(Call<PokemonList> next) {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+
+            call = next;
+        }
+
+        next.enqueue(new Callback<PokemonList>() {
+            @Override
+            public void onResponse(Call<PokemonList> call, Response<PokemonList> response) {
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                if (!response.isSuccessful()) {
+                    listener.onIndexError(new ErrorMapper().transform(new PokemonListError(), response));
+                    return;
+                }
+
+                PokemonList page = response.body();
+                pokemon.addAll(page.getPokemonList());
+
+                if (page.hasNextList() && page.getPageSize() > 0) {
+                    enqueue(calls.getPokemonList(page.getNextLink().getLinkUrl()));
+                } else {
+                    listener.onIndexLoaded(new PokemonIndex(listUrl, pokemon));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<PokemonList> call, Throwable t) {
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                listener.onIndexError(new ErrorMapper().transform(new PokemonListError(), t));
+            }
+        });
+    }
+}
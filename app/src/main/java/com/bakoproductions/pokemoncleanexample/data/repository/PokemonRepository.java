@@ -16,18 +16,22 @@
 
 package com.bakoproductions.pokemoncleanexample.data.repository;
 
+import com.bakoproductions.pokemoncleanexample.BuildConfig;
 import com.bakoproductions.pokemoncleanexample.data.entities.mappers.ErrorMapper;
-import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonDetailsMapper;
-import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonListMapper;
-import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
-import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonListResponse;
-import com.bakoproductions.pokemoncleanexample.data.rest.PokemonClient;
-import com.bakoproductions.pokemoncleanexample.data.rest.PokemonService;
-import com.bakoproductions.pokemoncleanexample.domain.executors.BusProvider;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.memory.TrimPolicy;
 import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonDetailsError;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonListError;
 import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDataSource;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsCallback;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonListCallback;
+import com.bakoproductions.pokemoncleanexample.data.rest.PokemonService;
+
+import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -38,87 +42,282 @@ import retrofit2.Response;
  */
 
 public class PokemonRepository implements PokemonDataSource {
-    private PokemonClient client;
+    // A repository is created for every use case, so the requests in flight
+    // have to be shared between all of them
+    private static final InFlightRequests<PokemonDetailsCallback> DETAILS_IN_FLIGHT =
+            new InFlightRequests<>();
+
+    // How many requests of a prefetch batch may run at the same time. We keep it lower than the
+    // requests per host of the Dispatcher so there is always room for what the user asks for.
+    private static final int PREFETCH_CONCURRENT_REQUESTS = 2;
+
+    // How many pokemon we ask for with every request while fetching the whole list.
+    // The list has a bit more than a thousand entries, so it takes one or two requests.
+    private static final int INDEX_REQUEST_LIMIT = 1000;
+
+    // The whole list of pokemon, once it has been fetched in the full index mode
+    private static volatile PokemonIndex INDEX;
+
+    // Every use case that needs the index waits for the same load of it
+    private static final InFlightRequests<PokemonIndexLoader.Listener> INDEX_IN_FLIGHT =
+            new InFlightRequests<>();
+    private static final String INDEX_KEY = "index";
+
+    private PokemonCalls calls;
+    private boolean fullIndex;
 
     public PokemonRepository() {
-        client = PokemonService.createClient(PokemonClient.class);
+        calls = new PokemonCalls(
+                BuildConfig.FUSED_JSON_CONVERTER, BuildConfig.HEDGE_DETAILS_REQUESTS);
+        fullIndex = BuildConfig.FULL_INDEX_LIST;
+    }
+
+    /**
+     * The index is small and it takes a request or two to build it again, so we drop it only
+     * when the app is about to be killed. The pages after that come from the network.
+     * @param level The ComponentCallbacks2 trim level
+     */
+    public static void trimMemory(int level) {
+        if (TrimPolicy.getKeepFraction(level) == 0) {
+            INDEX = null;
+        }
     }
 
     @Override
-    public void getPokemonList(int limit) {
-        Call<PokemonListResponse> call = client.getPokemonList(limit);
-        call.enqueue(new Callback<PokemonListResponse>() {
+    public Cancellable getPokemonList(final int limit, final PokemonListCallback callback) {
+        if (!fullIndex) {
+            return enqueuePokemonList(calls.getPokemonList(limit), callback);
+        }
+
+        PokemonIndex index = INDEX;
+        if (index != null) {
+            callback.onPokemonListReceived(index.page(0, limit));
+            return null;
+        }
+
+        // The index takes one or two sequential requests of a thousand pokemon each, so the
+        // first page doesn't wait for it. It is requested on its own while the index loads, and
+        // the next pages are served from the index once it is there. The links of the index are
+        // the links of the api, so a page may come from either of them.
+        final Cancellable indexLoad = loadIndex(null);
+        final Cancellable firstPage = enqueuePokemonList(calls.getPokemonList(limit), callback);
+
+        return new Cancellable() {
+            private volatile boolean cancelled;
+
             @Override
-            public void onResponse(Call<PokemonListResponse> call, Response<PokemonListResponse> response) {
-                if (response.isSuccessful()) {
-                    BusProvider.getRestBusInstance().post(
-                            new PokemonListMapper().transform(response.body())
-                    );
-                } else {
-                    BusProvider.getRestBusInstance().post(
-                            new ErrorMapper().transform(new PokemonListError(), response)
-                    );
-                }
+            public void cancel() {
+                cancelled = true;
+                firstPage.cancel();
+                indexLoad.cancel();
             }
 
             @Override
-            public void onFailure(Call<PokemonListResponse> call, Throwable t) {
-                BusProvider.getRestBusInstance().post(
-                        new ErrorMapper().transform(new PokemonListError(), t)
-                );
+            public boolean isCancelled() {
+                return cancelled;
+            }
+        };
+    }
+
+    /*
+        The first page came from somewhere else, but the next pages are still served from the
+        index in the full index mode
+     */
+    @Override
+    public Cancellable preparePokemonList(final Runnable onFinished) {
+        if (!fullIndex || INDEX != null) {
+            return null;
+        }
+
+        return loadIndex(new PokemonIndexLoader.Listener() {
+            @Override
+            public void onIndexLoaded(PokemonIndex index) {
+                onFinished.run();
+            }
+
+            @Override
+            public void onIndexError(PokemonListError error) {
+                // Nobody waits for the index, the next pages just go to the network one by one
+                onFinished.run();
             }
         });
     }
 
+    /*
+        Joins the load of the index that is already in flight, or starts it. The load is
+        cancelled only when everybody that waits for it has cancelled.
+     */
+    private Cancellable loadIndex(PokemonIndexLoader.Listener listener) {
+        InFlightRequests.Joined joined = INDEX_IN_FLIGHT.joinWithInterest(INDEX_KEY, listener);
+
+        if (!joined.isFirst()) {
+            return joined.getInterest();
+        }
+
+        PokemonIndexLoader loader = new PokemonIndexLoader(
+                calls,
+                PokemonService.getPokemonListUrl(),
+                INDEX_REQUEST_LIMIT,
+                new PokemonIndexLoader.Listener() {
+                    @Override
+                    public void onIndexLoaded(PokemonIndex index) {
+                        INDEX = index;
+
+                        List<PokemonIndexLoader.Listener> listeners =
+                                INDEX_IN_FLIGHT.completeForListeners(INDEX_KEY);
+                        for (int i=0;i<listeners.size();i++) {
+                            listeners.get(i).onIndexLoaded(index);
+                        }
+                    }
+
+                    @Override
+                    public void onIndexError(PokemonListError error) {
+                        List<PokemonIndexLoader.Listener> listeners =
+                                INDEX_IN_FLIGHT.completeForListeners(INDEX_KEY);
+                        for (int i=0;i<listeners.size();i++) {
+                            listeners.get(i).onIndexError(error);
+                        }
+                    }
+                }
+        );
+
+        INDEX_IN_FLIGHT.attach(INDEX_KEY, loader);
+        loader.load();
+        return joined.getInterest();
+    }
+
     @Override
-    public void getPokemonList(Link link) {
-        Call<PokemonListResponse> call = client.getPokemonList(link.getLinkUrl());
-        call.enqueue(new Callback<PokemonListResponse>() {
+    public Cancellable getPokemonList(Link link, PokemonListCallback callback) {
+        PokemonIndex index = INDEX;
+        PokemonList page = fullIndex && index != null ? index.page(link) : null;
+
+        if (page != null) {
+            callback.onPokemonListReceived(page);
+            return null;
+        }
+
+        return enqueuePokemonList(calls.getPokemonList(link.getLinkUrl()), callback);
+    }
+
+    private Cancellable enqueuePokemonList(Call<PokemonList> call,
+                                           final PokemonListCallback callback) {
+        call.enqueue(new Callback<PokemonList>() {
             @Override
-            public void onResponse(Call<PokemonListResponse> call, Response<PokemonListResponse> response) {
+            public void onResponse(Call<PokemonList> call, Response<PokemonList> response) {
+                if (call.isCanceled()) {
+                    return;
+                }
+
                 if (response.isSuccessful()) {
-                    BusProvider.getRestBusInstance().post(
-                            new PokemonListMapper().transform(response.body())
-                    );
+                    callback.onPokemonListReceived(response.body());
                 } else {
-                    BusProvider.getRestBusInstance().post(
+                    callback.onPokemonListError(
                             new ErrorMapper().transform(new PokemonListError(), response)
                     );
                 }
             }
 
             @Override
-            public void onFailure(Call<PokemonListResponse> call, Throwable t) {
-                BusProvider.getRestBusInstance().post(
+            public void onFailure(Call<PokemonList> call, Throwable t) {
+                // Nobody waits for a cancelled call
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                callback.onPokemonListError(
                         new ErrorMapper().transform(new PokemonListError(), t)
                 );
             }
         });
+
+        return new CallCancellable(call);
+    }
+
+    /**
+     * @return How many details requests joined an identical request that was already in flight
+     */
+    public static long getCoalescedDetailsRequests() {
+        return DETAILS_IN_FLIGHT.getCoalescedRequests();
     }
 
     @Override
-    public void getPokemonDetails(final String id) {
-        Call<PokemonDetailsResponse> call = client.getPokemonDetails(id);
-        call.enqueue(new Callback<PokemonDetailsResponse>() {
+    public Cancellable getPokemonDetails(final String id, PokemonDetailsCallback callback) {
+        // If the same pokemon is already requested we just wait for that result. It is given
+        // to the callback of every caller that still waits for it, and to nobody else.
+        // The request is cancelled only when every caller that waits for it has cancelled
+        InFlightRequests.Joined joined = DETAILS_IN_FLIGHT.joinWithInterest(id, callback);
+        Cancellable interest = joined.getInterest();
+
+        if (!joined.isFirst()) {
+            return interest;
+        }
+
+        Call<PokemonDetails> call = calls.getUserPokemonDetails(id);
+        DETAILS_IN_FLIGHT.attach(id, new CallCancellable(call));
+
+        call.enqueue(new Callback<PokemonDetails>() {
             @Override
-            public void onResponse(Call<PokemonDetailsResponse> call, Response<PokemonDetailsResponse> response) {
+            public void onResponse(Call<PokemonDetails> call, Response<PokemonDetails> response) {
+                // A cancelled call has already been removed from the requests in flight
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                List<PokemonDetailsCallback> callbacks = DETAILS_IN_FLIGHT.completeForListeners(id);
+
                 if (response.isSuccessful()) {
-                    BusProvider.getRestBusInstance().post(
-                            new PokemonDetailsMapper().transform(id, response.body())
-                    );
+                    deliverPokemonDetails(callbacks, response.body());
                 } else {
-                    BusProvider.getRestBusInstance().post(
+                    deliverPokemonDetailsError(
+                            callbacks,
                             new ErrorMapper().transform(new PokemonDetailsError(), response)
                     );
                 }
             }
 
             @Override
-            public void onFailure(Call<PokemonDetailsResponse> call, Throwable t) {
-                BusProvider.getRestBusInstance().post(
+            public void onFailure(Call<PokemonDetails> call, Throwable t) {
+                if (call.isCanceled()) {
+                    return;
+                }
+
+                deliverPokemonDetailsError(
+                        DETAILS_IN_FLIGHT.completeForListeners(id),
                         new ErrorMapper().transform(new PokemonDetailsError(), t)
                 );
             }
         });
+
+        return interest;
+    }
+
+    static void deliverPokemonDetails(List<PokemonDetailsCallback> callbacks,
+                                      PokemonDetails details) {
+        for (int i=0;i<callbacks.size();i++) {
+            callbacks.get(i).onPokemonDetailsReceived(details);
+        }
+    }
+
+    static void deliverPokemonDetailsError(List<PokemonDetailsCallback> callbacks,
+                                           PokemonDetailsError error) {
+        for (int i=0;i<callbacks.size();i++) {
+            callbacks.get(i).onPokemonDetailsError(error);
+        }
+    }
+
+    @Override
+    public Cancellable prefetchPokemonDetails(List<String> ids, PokemonDetailsDataCache dataCache,
+                                              Runnable onFinished) {
+        return new PokemonDetailsPrefetcher(
+                calls,
+                DETAILS_IN_FLIGHT,
+                dataCache,
+                PREFETCH_CONCURRENT_REQUESTS
+        ).prefetch(ids, onFinished);
+    }
+
+    @Override
+    public void warmUpConnection() {
+        PokemonService.warmUpConnection();
     }
 }
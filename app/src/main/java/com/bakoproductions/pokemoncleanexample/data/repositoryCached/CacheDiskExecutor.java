@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The single background thread that does the disk work of all the caches, one task at a time.
+ * It also runs the periodic work, e.g. the snapshots of the caches.
+ */
+class CacheDiskExecutor {
+    private static final ScheduledExecutorService INSTANCE =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Pokemon cache disk");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private CacheDiskExecutor() {}
+
+    static ScheduledExecutorService get() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One binary file with the list pages and the details that were in memory when it was written,
+ * so a new session gets all of them back with a single sequential read.
+ *
+ * The file is versioned. A file of another version or a damaged one is just not used, the caches
+ * still have their own files.
+ */
+class CacheSnapshot {
+    private static final int MAGIC = 0x504b534e;
+    private static final int VERSION = 1;
+
+    /**
+     * What was read back from the file
+     */
+    static class Contents {
+        final List<PokemonListPageCache.Record> pages;
+        final List<PokemonDetailsLog.Record> details;
+
+        Contents(List<PokemonListPageCache.Record> pages, List<PokemonDetailsLog.Record> details) {
+            this.pages = pages;
+            this.details = details;
+        }
+    }
+
+    private final File file;
+    private final PokemonListCodec listCodec = new PokemonListCodec();
+    private final PokemonDetailsCodec detailsCodec = new PokemonDetailsCodec();
+
+    CacheSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Replaces the file with a new one. It is written next to the old one and then renamed, so
+     * a crash never leaves us with a half written file.
+     */
+    void write(List<PokemonListPageCache.Record> pages,
+               List<PokemonDetailsLog.Record> details) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        File parent = temp.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(pages.size());
+            for (int i=0;i<pages.size();i++) {
+                out.writeUTF(pages.get(i).key);
+                out.writeLong(pages.get(i).addedAt);
+                listCodec.write(out, pages.get(i).page);
+            }
+
+            out.writeInt(details.size());
+            for (int i=0;i<details.size();i++) {
+                out.writeLong(details.get(i).addedAt);
+                detailsCodec.write(out, details.get(i).details);
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            // Some file systems don't replace on rename
+            if (!file.delete() || !temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+    }
+
+    /**
+     * @return What the file has, or null if there is no file
+     * @throws IOException If the file is damaged or of another version
+     */
+    Contents read() throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown format of " + file);
+            }
+
+            int count = in.readInt();
+            ArrayList<PokemonListPageCache.Record> pages = new ArrayList<>(count);
+            for (int i=0;i<count;i++) {
+                String key = in.readUTF();
+                long addedAt = in.readLong();
+                pages.add(new PokemonListPageCache.Record(key, addedAt, listCodec.read(in)));
+            }
+
+            count = in.readInt();
+            ArrayList<PokemonDetailsLog.Record> details = new ArrayList<>(count);
+            for (int i=0;i<count;i++) {
+                long addedAt = in.readLong();
+                PokemonDetails read = detailsCodec.read(in);
+                details.add(new PokemonDetailsLog.Record(read.getId(), addedAt, read));
+            }
+
+            return new Contents(pages, details);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return When the file was written last, or 0 if there is no file
+     */
+    long lastModified() {
+        return file.lastModified();
+    }
+
+    void delete() throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+    }
+}
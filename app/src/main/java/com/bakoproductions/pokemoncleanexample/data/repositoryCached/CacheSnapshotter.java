@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import android.content.ComponentCallbacks2;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.memory.Trimmable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a snapshot of the list pages and the details, so a new session starts with everything
+ * that the last one had in memory.
+ *
+ * The snapshot is read once when we start and then written again every period, but only if
+ * the caches changed. It is also written when the app goes to the background, since the process
+ * may be killed at any time after that.
+ *
+ * The caches keep their own files, the snapshot is only the fast way back. Reading them is a lot
+ * of small records, the snapshot is a single sequential read of the fresh entries. So when the
+ * snapshot was written after the files of the caches it is restored instead of them. Otherwise
+ * the caches have changes that it doesn't, and they read their own files.
+ */
+public class CacheSnapshotter implements Trimmable {
+    private final CacheSnapshot snapshot;
+    private final PersistentPokemonDetailsCache details;
+    private final PokemonListPageCache pages;
+    private final ScheduledExecutorService executor;
+    private final Executor mainThread;
+    private final long periodMillis;
+
+    private boolean started;
+    private boolean loaded = true;
+    private final ArrayList<Waiter> waiting = new ArrayList<>();
+
+    // Used only by the executor thread
+    private long writtenChanges = -1;
+
+    /**
+     * @param file The file of the snapshot, or null to do nothing
+     * @param details The details cache
+     * @param pages The list page cache
+     * @param executor Where the snapshot is read and written. It has to run one task at a time
+     *                 in the order they were given, and it has to be the executor of the caches,
+     *                 since it may read their files instead of them.
+     * @param mainThread Where whoever waits for the snapshot is called back
+     * @param period How often we check if the caches changed
+     * @param unit The unit of the period
+     */
+    public CacheSnapshotter(File file, PersistentPokemonDetailsCache details,
+                            PokemonListPageCache pages, ScheduledExecutorService executor,
+                            Executor mainThread, long period, TimeUnit unit) {
+        this.snapshot = file != null ? new CacheSnapshot(file) : null;
+        this.details = details;
+        this.pages = pages;
+        this.executor = executor;
+        this.mainThread = mainThread;
+        this.periodMillis = unit.toMillis(period);
+    }
+
+    /**
+     * Loads the caches in the background, from the snapshot or from their own files, and starts
+     * writing the snapshot periodically. Until they are loaded whoever calls whenLoaded() waits.
+     */
+    public void start() {
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+
+            started = true;
+            loaded = snapshot == null;
+        }
+
+        if (snapshot == null) {
+            // Nothing to wait for, the caches just read their own files
+            details.load();
+            pages.load();
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean restored = restore();
+                onLoaded();
+
+                // Nobody waits for this. The log is compacted only when it is read, and if it
+                // is rewritten the snapshot has to be written again to stay the newer file.
+                if (restored && details.compactNow()) {
+                    writtenChanges = -1;
+                    snapshotIfChanged();
+                }
+            }
+        });
+
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                snapshotIfChanged();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the callback on the main thread once the snapshot is in the caches. If it is already
+     * there, or there is no snapshot, the callback runs right away.
+     * @param callback What to run
+     * @return Cancels the callback if it didn't run yet
+     */
+    public Cancellable whenLoaded(Runnable callback) {
+        Waiter waiter = new Waiter(callback);
+
+        synchronized (this) {
+            if (!loaded) {
+                waiting.add(waiter);
+                return waiter;
+            }
+        }
+
+        waiter.run();
+        return waiter;
+    }
+
+    /**
+     * Writes the snapshot in the background if the caches changed since the last one
+     */
+    public void snapshot() {
+        synchronized (this) {
+            if (snapshot == null || !started) {
+                // We would overwrite the snapshot before we ever read it
+                return;
+            }
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                snapshotIfChanged();
+            }
+        });
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // The app is not visible any more and may be killed without any other warning
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            snapshot();
+        }
+    }
+
+    /*
+        Returns true if the caches were restored from the snapshot, false if they read their
+        own files
+     */
+    private boolean restore() {
+        long cacheFiles = Math.max(details.getFileLastModified(), pages.getFileLastModified());
+
+        if (snapshot.lastModified() > cacheFiles) {
+            try {
+                CacheSnapshot.Contents contents = snapshot.read();
+                if (contents != null) {
+                    pages.restore(contents.pages);
+                    details.restore(contents.details);
+
+                    // Restoring doesn't change the counts, so the caches are what the snapshot has
+                    writtenChanges = getChangeCount();
+                    return true;
+                }
+            } catch (IOException e) {
+                // A damaged snapshot is of no use, the next one replaces it
+                e.printStackTrace();
+                deleteSnapshot();
+            }
+        }
+
+        pages.loadNow();
+        details.loadNow();
+        return false;
+    }
+
+    private void onLoaded() {
+        ArrayList<Waiter> callbacks;
+
+        synchronized (this) {
+            loaded = true;
+            callbacks = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+
+        for (int i=0;i<callbacks.size();i++) {
+            mainThread.execute(callbacks.get(i));
+        }
+    }
+
+    private void snapshotIfChanged() {
+        // We count before we copy, so a change that happens in between is written next time
+        long changes = getChangeCount();
+        if (changes == writtenChanges) {
+            return;
+        }
+
+        try {
+            snapshot.write(pages.getRecords(), details.getRecords());
+            writtenChanges = changes;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void deleteSnapshot() {
+        try {
+            snapshot.delete();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private long getChangeCount() {
+        return pages.getChangeCount() + details.getChangeCount();
+    }
+
+    private static class Waiter implements Runnable, Cancellable {
+        private final Runnable callback;
+        private volatile boolean cancelled;
+
+        Waiter(Runnable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            // Once it ran there is nothing left to cancel
+            if (!cancelled) {
+                cancelled = true;
+                callback.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
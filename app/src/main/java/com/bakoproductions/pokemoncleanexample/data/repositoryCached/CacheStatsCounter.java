@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetailsCacheStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The counters behind the PokemonDetailsCacheStats, safe to update from any thread
+ */
+class CacheStatsCounter {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadSuccesses = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong totalLoadTimeNanos = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    void recordRequest(boolean hit) {
+        (hit ? hits : misses).incrementAndGet();
+    }
+
+    void recordLoad(long nanos, boolean success) {
+        (success ? loadSuccesses : loadFailures).incrementAndGet();
+        totalLoadTimeNanos.addAndGet(nanos);
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    PokemonDetailsCacheStats snapshot(int entryCount, long sizeBytes) {
+        return new PokemonDetailsCacheStats(
+                hits.get(),
+                misses.get(),
+                loadSuccesses.get(),
+                loadFailures.get(),
+                totalLoadTimeNanos.get(),
+                evictions.get(),
+                entryCount,
+                sizeBytes);
+    }
+}
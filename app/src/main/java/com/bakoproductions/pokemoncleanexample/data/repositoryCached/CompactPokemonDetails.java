@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+
+import java.util.ArrayList;
+
+/**
+ * The details of a pokemon the way the cache keeps them: one object and three arrays of
+ * numbers instead of three lists and a dozen objects and strings.
+ *
+ * The names are replaced by their PokemonNameCodes. Every stat is packed in a single int
+ * (name, effort and base) and every ability in another (name and hidden). A null list stays
+ * a null array and a null item of a list is -1.
+ *
+ * The details are decoded back into the model every time they are read, so whoever reads them
+ * gets a copy that they are free to change.
+ */
+final class CompactPokemonDetails {
+    private static final int NULL_ITEM = -1;
+
+    // A stat is name << 20 | effort << 16 | base
+    private static final int STAT_NAME_SHIFT = 20;
+    private static final int STAT_EFFORT_SHIFT = 16;
+    private static final int STAT_MAX_NAME = (1 << 11) - 1;
+    private static final int STAT_MAX_EFFORT = 0xF;
+    private static final int STAT_MAX_BASE = 0xFFFF;
+
+    // Rough sizes of the objects on the heap, header and fields included
+    private static final int COMPACT_BYTES = 32;
+    private static final int ARRAY_BYTES = 16;
+    private static final int STRING_BYTES = 40;
+
+    private final String id;
+    private final int weight;
+    private final int baseXP;
+    private final short[] types;
+    private final int[] abilities;
+    private final int[] stats;
+
+    private CompactPokemonDetails(String id, int weight, int baseXP,
+                                  short[] types, int[] abilities, int[] stats) {
+        this.id = id;
+        this.weight = weight;
+        this.baseXP = baseXP;
+        this.types = types;
+        this.abilities = abilities;
+        this.stats = stats;
+    }
+
+    /**
+     * @param details Any details
+     * @param names The codes of the names
+     * @return The compact details, or null if something doesn't fit in them (e.g. a stat above
+     *         the packed range) and the details have to be kept as they are
+     */
+    static CompactPokemonDetails encode(PokemonDetails details, PokemonNameCodes names) {
+        short[] types = null;
+        if (details.getTypes() != null) {
+            ArrayList<String> list = details.getTypes();
+            types = new short[list.size()];
+
+            for (int i=0;i<types.length;i++) {
+                int code = names.encode(list.get(i));
+                if (code == PokemonNameCodes.NONE || code > Short.MAX_VALUE) {
+                    return null;
+                }
+                types[i] = (short) code;
+            }
+        }
+
+        int[] abilities = null;
+        if (details.getAbilities() != null) {
+            ArrayList<PokemonAbility> list = details.getAbilities();
+            abilities = new int[list.size()];
+
+            for (int i=0;i<abilities.length;i++) {
+                PokemonAbility ability = list.get(i);
+                if (ability == null) {
+                    abilities[i] = NULL_ITEM;
+                    continue;
+                }
+
+                int code = names.encode(ability.getName());
+                if (code == PokemonNameCodes.NONE) {
+                    return null;
+                }
+                abilities[i] = code << 1 | (ability.isHidden() ? 1 : 0);
+            }
+        }
+
+        int[] stats = null;
+        if (details.getStats() != null) {
+            ArrayList<PokemonStat> list = details.getStats();
+            stats = new int[list.size()];
+
+            for (int i=0;i<stats.length;i++) {
+                PokemonStat stat = list.get(i);
+                if (stat == null) {
+                    stats[i] = NULL_ITEM;
+                    continue;
+                }
+
+                int code = names.encode(stat.getName());
+                if (code == PokemonNameCodes.NONE || code > STAT_MAX_NAME
+                        || stat.getEffort() < 0 || stat.getEffort() > STAT_MAX_EFFORT
+                        || stat.getBase() < 0 || stat.getBase() > STAT_MAX_BASE) {
+                    return null;
+                }
+                stats[i] = code << STAT_NAME_SHIFT
+                        | stat.getEffort() << STAT_EFFORT_SHIFT
+                        | stat.getBase();
+            }
+        }
+
+        return new CompactPokemonDetails(
+                details.getId(), details.getWeight(), details.getBaseXP(), types, abilities, stats);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * @param names The codes the details were encoded with
+     * @return A new model with the same content as the encoded details
+     */
+    PokemonDetails decode(PokemonNameCodes names) {
+        PokemonDetails details = new PokemonDetails(id);
+        details.setWeight(weight);
+        details.setBaseXP(baseXP);
+
+        if (types != null) {
+            ArrayList<String> list = new ArrayList<>(types.length);
+            for (int i=0;i<types.length;i++) {
+                list.add(names.decode(types[i]));
+            }
+            details.setTypes(list);
+        }
+
+        if (abilities != null) {
+            ArrayList<PokemonAbility> list = new ArrayList<>(abilities.length);
+            for (int i=0;i<abilities.length;i++) {
+                if (abilities[i] == NULL_ITEM) {
+                    list.add(null);
+                    continue;
+                }
+
+                PokemonAbility ability = new PokemonAbility();
+                ability.setName(names.decode(abilities[i] >>> 1));
+                ability.setHidden((abilities[i] & 1) != 0);
+                list.add(ability);
+            }
+            details.setAbilities(list);
+        }
+
+        if (stats != null) {
+            ArrayList<PokemonStat> list = new ArrayList<>(stats.length);
+            for (int i=0;i<stats.length;i++) {
+                if (stats[i] == NULL_ITEM) {
+                    list.add(null);
+                    continue;
+                }
+
+                PokemonStat stat = new PokemonStat();
+                stat.setName(names.decode(stats[i] >>> STAT_NAME_SHIFT));
+                stat.setEffort(stats[i] >>> STAT_EFFORT_SHIFT & STAT_MAX_EFFORT);
+                stat.setBase(stats[i] & STAT_MAX_BASE);
+                list.add(stat);
+            }
+            details.setStats(list);
+        }
+
+        return details;
+    }
+
+    /**
+     * @return The estimated memory the compact details take. The names are shared by all the
+     *         details, so they are not counted.
+     */
+    long sizeOf() {
+        long size = COMPACT_BYTES + STRING_BYTES + 2L * id.length();
+
+        if (types != null) {
+            size += ARRAY_BYTES + 2L * types.length;
+        }
+        if (abilities != null) {
+            size += ARRAY_BYTES + 4L * abilities.length;
+        }
+        if (stats != null) {
+            size += ARRAY_BYTES + 4L * stats.length;
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetailsCacheStats;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A details cache that survives the death of the process.
+ *
+ * The lookups are answered only by the memory cache, so they never touch the disk. Every change
+ * is also written to an append only file (PokemonDetailsLog) by the given executor. When the
+ * cache is loaded the executor reads the file back into memory, so a new session starts with
+ * the details of the previous ones.
+ *
+ * Details older than the time to live count as missing, they are fetched again. Younger details
+ * may still be revalidated by whoever uses them, based on their age.
+ */
+public class PersistentPokemonDetailsCache implements PokemonDetailsDataCache {
+    // Compacting a small file is not worth the rewrite
+    private static final int COMPACT_MIN_RECORDS = 100;
+
+    private final PokemonDetailsLruCache memory;
+    private final PokemonDetailsLog log;
+    private final long ttlMillis;
+    private final Executor executor;
+
+    // Grows with every change, so whoever copies the details knows if they changed since
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * @param file The file that keeps the details, or null to keep them only in memory
+     * @param memory The memory cache that answers the lookups
+     * @param ttl How long the details stay fresh
+     * @param unit The unit of the ttl
+     * @param executor Runs the disk work, it must run one task at a time and never on the
+     *                 main thread
+     */
+    public PersistentPokemonDetailsCache(File file, PokemonDetailsLruCache memory, long ttl,
+                                         TimeUnit unit, Executor executor) {
+        this.memory = memory;
+        this.log = file != null ? new PokemonDetailsLog(file) : null;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the file back into memory in the background. For every pokemon the details that were
+     * fetched last are kept, whether they come from the file or were added before it was read.
+     */
+    public void load() {
+        if (log == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadNow();
+            }
+        });
+    }
+
+    /**
+     * Does the work of load() on the calling thread, which has to be the thread of the executor
+     */
+    void loadNow() {
+        if (log == null) {
+            return;
+        }
+
+        try {
+            List<PokemonDetailsLog.Record> fresh = readFresh();
+            compact(fresh);
+
+            // The file is in the order of the writes, so the most recent details end up
+            // as the most recently used
+            for (int i=0;i<fresh.size();i++) {
+                memory.addPokemonDetailsIfNewer(fresh.get(i).details, fresh.get(i).addedAt);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            clearLog();
+        }
+    }
+
+    /**
+     * Drops the replaced and the expired details from the file without loading it. The file is
+     * only compacted when it is read, so whoever restores the memory some other way calls this.
+     * It runs on the calling thread, which has to be the thread of the executor.
+     * @return True if the file was rewritten
+     */
+    boolean compactNow() {
+        if (log == null) {
+            return false;
+        }
+
+        try {
+            return compact(readFresh());
+        } catch (IOException e) {
+            e.printStackTrace();
+            clearLog();
+            return true;
+        }
+    }
+
+    /**
+     * @return When the file was written last, or 0 if there is no file
+     */
+    long getFileLastModified() {
+        return log != null ? log.lastModified() : 0;
+    }
+
+    @Override
+    public void addPokemonDetails(final PokemonDetails details) {
+        // Details without an id could never be found again
+        if (details == null || !PokemonDetailsLog.hasId(details.getId())) {
+            return;
+        }
+
+        final long addedAt = System.currentTimeMillis();
+        memory.addPokemonDetails(details, addedAt);
+        changes.incrementAndGet();
+
+        if (log == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    log.append(details, addedAt);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean hasPokemonDetails(String id) {
+        return isFresh(memory.getAddedAt(id));
+    }
+
+    @Override
+    public PokemonDetails getPokemonDetails(String id) {
+        // Anything fetched before this is expired
+        return memory.getPokemonDetailsAddedSince(id, System.currentTimeMillis() - ttlMillis + 1);
+    }
+
+    @Override
+    public long getPokemonDetailsAge(String id) {
+        long addedAt = memory.getAddedAt(id);
+        return isFresh(addedAt) ? Math.max(0, System.currentTimeMillis() - addedAt) : -1;
+    }
+
+    @Override
+    public void removePokemonDetails(final String id) {
+        if (!PokemonDetailsLog.hasId(id)) {
+            return;
+        }
+
+        memory.removePokemonDetails(id);
+        changes.incrementAndGet();
+
+        if (log == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    log.appendRemoval(id);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void removeAll() {
+        memory.removeAll();
+        changes.incrementAndGet();
+
+        if (log == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                clearLog();
+            }
+        });
+    }
+
+    /**
+     * @return The fresh details in memory with the time they were fetched
+     */
+    List<PokemonDetailsLog.Record> getRecords() {
+        List<PokemonDetailsLog.Record> records = memory.getRecords();
+        List<PokemonDetailsLog.Record> fresh = new ArrayList<>(records.size());
+
+        for (int i=0;i<records.size();i++) {
+            if (isFresh(records.get(i).addedAt)) {
+                fresh.add(records.get(i));
+            }
+        }
+
+        return fresh;
+    }
+
+    /**
+     * Adds the details that were copied with getRecords() by an earlier session. For every
+     * pokemon the details that were fetched last are kept.
+     */
+    void restore(List<PokemonDetailsLog.Record> records) {
+        for (int i=0;i<records.size();i++) {
+            if (isFresh(records.get(i).addedAt)) {
+                memory.addPokemonDetailsIfNewer(records.get(i).details, records.get(i).addedAt);
+            }
+        }
+    }
+
+    /**
+     * @return A number that grows with every change of the details
+     */
+    long getChangeCount() {
+        return changes.get();
+    }
+
+    /**
+     * Gives back a part of the memory cache. The trimmed details stay on the disk but the
+     * lookups never read the disk, so until the next session they are fetched again.
+     * @param keepFraction The share of the details to keep in memory, from 0 to 1
+     */
+    public void trimMemory(float keepFraction) {
+        memory.trimToFraction(keepFraction);
+    }
+
+    @Override
+    public void recordRequest(boolean hit) {
+        memory.recordRequest(hit);
+    }
+
+    @Override
+    public void recordLoad(long nanos, boolean success) {
+        memory.recordLoad(nanos, success);
+    }
+
+    /**
+     * The stats of the memory cache, the expired details that it still keeps are counted in
+     * its entries and bytes
+     */
+    @Override
+    public PokemonDetailsCacheStats getStats() {
+        return memory.getStats();
+    }
+
+    private boolean isFresh(long addedAt) {
+        return addedAt >= 0 && System.currentTimeMillis() - addedAt < ttlMillis;
+    }
+
+    private List<PokemonDetailsLog.Record> readFresh() throws IOException {
+        List<PokemonDetailsLog.Record> records = log.read();
+        List<PokemonDetailsLog.Record> fresh = new ArrayList<>();
+
+        for (int i=0;i<records.size();i++) {
+            if (isFresh(records.get(i).addedAt)) {
+                fresh.add(records.get(i));
+            }
+        }
+
+        return fresh;
+    }
+
+    /*
+        Dropping the replaced and the expired details once most of the file is garbage
+     */
+    private boolean compact(List<PokemonDetailsLog.Record> fresh) throws IOException {
+        if (log.getRecordCount() >= COMPACT_MIN_RECORDS
+                && log.getRecordCount() > 2 * fresh.size()) {
+            log.rewrite(fresh);
+            return true;
+        }
+
+        return false;
+    }
+
+    private void clearLog() {
+        try {
+            log.clear();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes the details in a compact binary form and reads them back. Only the data the app shows
+ * are written, with no field names and no reflection, so a pokemon takes a few hundred bytes.
+ *
+ * A null list is written as the count -1, so the details are read back exactly as they were.
+ */
+class PokemonDetailsCodec {
+    private static final int NULL_LIST = -1;
+
+    void write(DataOutput out, PokemonDetails details) throws IOException {
+        out.writeUTF(details.getId());
+        out.writeInt(details.getWeight());
+        out.writeInt(details.getBaseXP());
+
+        ArrayList<String> types = details.getTypes();
+        out.writeInt(types != null ? types.size() : NULL_LIST);
+        if (types != null) {
+            for (int i=0;i<types.size();i++) {
+                writeString(out, types.get(i));
+            }
+        }
+
+        ArrayList<PokemonAbility> abilities = details.getAbilities();
+        out.writeInt(abilities != null ? abilities.size() : NULL_LIST);
+        if (abilities != null) {
+            for (int i=0;i<abilities.size();i++) {
+                PokemonAbility ability = abilities.get(i);
+                out.writeBoolean(ability != null);
+
+                if (ability != null) {
+                    out.writeBoolean(ability.isHidden());
+                    writeString(out, ability.getName());
+                }
+            }
+        }
+
+        ArrayList<PokemonStat> stats = details.getStats();
+        out.writeInt(stats != null ? stats.size() : NULL_LIST);
+        if (stats != null) {
+            for (int i=0;i<stats.size();i++) {
+                PokemonStat stat = stats.get(i);
+                out.writeBoolean(stat != null);
+
+                if (stat != null) {
+                    writeString(out, stat.getName());
+                    out.writeInt(stat.getEffort());
+                    out.writeInt(stat.getBase());
+                }
+            }
+        }
+    }
+
+    PokemonDetails read(DataInput in) throws IOException {
+        PokemonDetails details = new PokemonDetails(in.readUTF());
+        details.setWeight(in.readInt());
+        details.setBaseXP(in.readInt());
+
+        int count = in.readInt();
+        if (count != NULL_LIST) {
+            ArrayList<String> types = new ArrayList<>(count);
+            for (int i=0;i<count;i++) {
+                types.add(readString(in));
+            }
+            details.setTypes(types);
+        }
+
+        count = in.readInt();
+        if (count != NULL_LIST) {
+            ArrayList<PokemonAbility> abilities = new ArrayList<>(count);
+            for (int i=0;i<count;i++) {
+                PokemonAbility ability = null;
+
+                if (in.readBoolean()) {
+                    ability = new PokemonAbility();
+                    ability.setHidden(in.readBoolean());
+                    ability.setName(readString(in));
+                }
+
+                abilities.add(ability);
+            }
+            details.setAbilities(abilities);
+        }
+
+        count = in.readInt();
+        if (count != NULL_LIST) {
+            ArrayList<PokemonStat> stats = new ArrayList<>(count);
+            for (int i=0;i<count;i++) {
+                PokemonStat stat = null;
+
+                if (in.readBoolean()) {
+                    stat = new PokemonStat();
+                    stat.setName(readString(in));
+                    stat.setEffort(in.readInt());
+                    stat.setBase(in.readInt());
+                }
+
+                stats.add(stat);
+            }
+            details.setStats(stats);
+        }
+
+        return details;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
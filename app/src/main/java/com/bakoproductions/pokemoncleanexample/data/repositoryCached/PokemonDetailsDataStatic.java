@@ -16,54 +16,68 @@
 
 package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
 
-import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
-import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+import com.bakoproductions.pokemoncleanexample.domain.memory.TrimPolicy;
+import com.bakoproductions.pokemoncleanexample.domain.memory.Trimmable;
+import com.bakoproductions.pokemoncleanexample.presentation.components.PokemonApplication;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Michael on 17/4/2017.
+ *
+ * The details cache of the app. The details are kept on the disk between the sessions, and in
+ * memory in a bounded cache that evicts the least recently used details when it grows too big.
+ * When the system runs low on memory the memory cache shrinks by the TrimPolicy.
  */
 
-public class PokemonDetailsDataStatic implements PokemonDetailsDataCache {
+public class PokemonDetailsDataStatic extends PersistentPokemonDetailsCache implements Trimmable {
+    // The whole pokedex is a bit more than a thousand pokemon, so it fits with room to grow.
+    // Even then they take well below the byte bound.
+    private static final int MAX_ENTRIES = 1500;
+    private static final long MAX_BYTES = 2 * 1024 * 1024;
+
+    // The details are used by the main thread, the disk thread and the threads of the network
+    private static final int CONCURRENCY_LEVEL = 4;
+
+    private static final String FILE_NAME = "pokemon_details.log";
+
+    // The pokeapi data practically never change, so we show even old details right away.
+    // Whoever shows them revalidates them when they are older than they would like.
+    private static final int TTL_DAYS = 30;
+
     private static PokemonDetailsDataStatic INSTANCE;
 
-    public static PokemonDetailsDataStatic get() {
+    public static synchronized PokemonDetailsDataStatic get() {
         if (INSTANCE == null) {
+            // Loaded by the PokemonSnapshotStatic, from the snapshot or from its own file
             INSTANCE = new PokemonDetailsDataStatic();
         }
 
         return INSTANCE;
     }
 
-    private ArrayList<PokemonDetails> detailsList;
-
     private PokemonDetailsDataStatic() {
-        detailsList = new ArrayList<>();
-    }
-
-    @Override
-    public void addPokemonDetails(PokemonDetails details) {
-        detailsList.add(details);
+        super(
+                createFile(),
+                new PokemonDetailsLruCache(MAX_ENTRIES, MAX_BYTES, CONCURRENCY_LEVEL),
+                TTL_DAYS,
+                TimeUnit.DAYS,
+                CacheDiskExecutor.get());
     }
 
     @Override
-    public boolean hasPokemonDetails(String id) {
-        return detailsList.contains(new PokemonDetails(id));
+    public void onTrimMemory(int level) {
+        trimMemory(TrimPolicy.getKeepFraction(level));
     }
 
-    @Override
-    public PokemonDetails getPokemonDetails(String id) {
-        return detailsList.get(detailsList.indexOf(new PokemonDetails(id)));
-    }
-
-    @Override
-    public void removePokemonDetails(String id) {
-        detailsList.remove(detailsList.indexOf(new PokemonDetails(id)));
-    }
-
-    @Override
-    public void removeAll() {
-        detailsList.clear();
+    private static File createFile() {
+        try {
+            return new File(PokemonApplication.getInstance().getFilesDir(), FILE_NAME);
+        } catch (IllegalStateException e) {
+            // There is no application to give us a directory (e.g. in tests),
+            // so we keep the details only in memory
+            return null;
+        }
     }
 }
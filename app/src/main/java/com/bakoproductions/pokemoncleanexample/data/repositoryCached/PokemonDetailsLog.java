@@ -0,0 +1,328 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * An append only file with the cached details.
+ *
+ * Every change is a record at the end of the file: either the details of a pokemon with the
+ * time they were fetched, or the removal of a pokemon. The last record of a pokemon wins.
+ * Records that a later record replaced are garbage, they are dropped when the file is compacted.
+ *
+ * Every record starts with its length, so a record that was cut by a crash is detected and
+ * ignored together with everything after it.
+ *
+ * It is not thread safe, all the work has to happen on the same background thread.
+ */
+class PokemonDetailsLog {
+    private static final int MAGIC = 0x504b4443;
+    private static final int VERSION = 1;
+
+    // No details come close to this, a longer record means the file is damaged
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    static class Record {
+        final String id;
+        final long addedAt;
+        final PokemonDetails details;
+
+        Record(String id, long addedAt, PokemonDetails details) {
+            this.id = id;
+            this.addedAt = addedAt;
+            this.details = details;
+        }
+    }
+
+    private final File file;
+    private final PokemonDetailsCodec codec = new PokemonDetailsCodec();
+
+    // How many records the file has, live or garbage. Counted from the file the first time it
+    // is needed, unless read() counted them already.
+    private int records = -1;
+
+    PokemonDetailsLog(File file) {
+        this.file = file;
+    }
+
+    int getRecordCount() throws IOException {
+        if (records < 0) {
+            records = countRecords();
+        }
+
+        return records;
+    }
+
+    /**
+     * @return When the file was written last, or 0 if there is no file
+     */
+    long lastModified() {
+        return file.lastModified();
+    }
+
+    /**
+     * Reads the whole file. If it was damaged or written by another version it is started over,
+     * and everything that could be read before the damage is returned.
+     * @return The live details in the order they were written, the expired ones included
+     */
+    List<Record> read() throws IOException {
+        LinkedHashMap<String, Record> live = new LinkedHashMap<>();
+        records = 0;
+
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+
+        boolean damaged = false;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                damaged = true;
+            } else {
+                damaged = !readRecords(in, live);
+            }
+        } catch (EOFException e) {
+            damaged = true;
+        } finally {
+            in.close();
+        }
+
+        ArrayList<Record> result = new ArrayList<>(live.values());
+        if (damaged) {
+            rewrite(result);
+        }
+
+        return result;
+    }
+
+    /*
+        Returns false if the records stop in the middle of one
+     */
+    private boolean readRecords(DataInputStream in, LinkedHashMap<String, Record> live)
+            throws IOException {
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return true;
+            }
+
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return false;
+            }
+
+            byte[] bytes = new byte[length];
+            try {
+                in.readFully(bytes);
+            } catch (EOFException e) {
+                return false;
+            }
+
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte type = record.readByte();
+            String id = record.readUTF();
+
+            // Moving the pokemon to the end, so the order stays the order of the last write
+            live.remove(id);
+            if (type == PUT) {
+                long addedAt = record.readLong();
+                live.put(id, new Record(id, addedAt, codec.read(record)));
+            }
+
+            records++;
+        }
+    }
+
+    /*
+        Details without an id could never be found again, so they are never written
+     */
+    void append(PokemonDetails details, long addedAt) throws IOException {
+        if (!hasId(details.getId())) {
+            return;
+        }
+
+        append(encode(details, addedAt));
+    }
+
+    void appendRemoval(String id) throws IOException {
+        if (!hasId(id)) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(REMOVE);
+        record.writeUTF(id);
+
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Replaces the file with one that has only the given records. The new file is written next
+     * to the old one and then renamed, so a crash never leaves us with a half written file.
+     */
+    void rewrite(Collection<Record> live) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+
+        int written = 0;
+        DataOutputStream out = open(temp, false);
+        try {
+            writeHeader(out);
+            Iterator<Record> iterator = live.iterator();
+            while (iterator.hasNext()) {
+                Record record = iterator.next();
+                if (!hasId(record.id)) {
+                    continue;
+                }
+
+                byte[] bytes = encode(record.details, record.addedAt);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                written++;
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            // Some file systems don't replace on rename
+            if (!file.delete() || !temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+
+        records = written;
+    }
+
+    void clear() throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+
+        records = 0;
+    }
+
+    private void append(byte[] record) throws IOException {
+        boolean created = !file.exists();
+
+        // The records of the file have to be counted before this one is added to them
+        getRecordCount();
+
+        DataOutputStream out = open(file, true);
+        try {
+            if (created) {
+                writeHeader(out);
+            }
+
+            out.writeInt(record.length);
+            out.write(record);
+        } finally {
+            out.close();
+        }
+
+        records++;
+    }
+
+    /*
+        Counts the records without decoding them, up to the first damaged one. That is what
+        read() would have counted.
+     */
+    private int countRecords() throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int count = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return 0;
+            }
+
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    return count;
+                }
+
+                if (in.skipBytes(length) < length) {
+                    return count;
+                }
+                count++;
+            }
+        } catch (EOFException e) {
+            return count;
+        } finally {
+            in.close();
+        }
+    }
+
+    private byte[] encode(PokemonDetails details, long addedAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(PUT);
+        record.writeUTF(details.getId());
+        record.writeLong(addedAt);
+        codec.write(record, details);
+
+        return bytes.toByteArray();
+    }
+
+    /*
+        The details without an id have an empty one
+     */
+    static boolean hasId(String id) {
+        return id != null && id.length() > 0;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    private static DataOutputStream open(File file, boolean append) throws FileNotFoundException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append)));
+    }
+}
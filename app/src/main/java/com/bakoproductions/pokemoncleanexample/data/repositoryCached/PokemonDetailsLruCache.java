@@ -0,0 +1,423 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetailsCacheStats;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A details cache keyed by the pokemon id, bounded both by the number of entries and by their
+ * estimated size in bytes. Every lookup is a hash lookup and when a bound is crossed the least
+ * recently used details are evicted first.
+ *
+ * It is safe to use from any thread. The ids are spread over a number of segments, each one an
+ * LRU with its own lock and its share of the bounds, so threads that look up different pokemon
+ * rarely wait for each other. The price is that the eviction is least recently used per segment,
+ * not over the whole cache.
+ *
+ * The details are kept as CompactPokemonDetails and decoded on every read, so every read returns
+ * a new copy of the model. Details that don't fit the compact form are kept as they are.
+ *
+ * The size of an entry is an estimate of the memory its objects take on the heap. It doesn't have
+ * to be exact, it only has to grow with the amount of data.
+ */
+public class PokemonDetailsLruCache implements PokemonDetailsDataCache {
+    // Rough sizes of the objects on the heap, header and fields included
+    private static final int OBJECT_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int DETAILS_BYTES = 40;
+    private static final int LIST_BYTES = 40;
+    private static final int STRING_BYTES = 40;
+
+    private final Segment[] segments;
+    private final CacheStatsCounter stats = new CacheStatsCounter();
+
+    /**
+     * A cache with a single segment, which is a strict LRU
+     * @param maxEntries How many details we keep at most
+     * @param maxBytes How much memory the details may take at most, as estimated by sizeOf(...)
+     */
+    public PokemonDetailsLruCache(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, 1);
+    }
+
+    /**
+     * @param maxEntries How many details we keep at most
+     * @param maxBytes How much memory the details may take at most, as estimated by sizeOf(...)
+     * @param concurrencyLevel How many segments the cache is split to
+     */
+    public PokemonDetailsLruCache(int maxEntries, long maxBytes, int concurrencyLevel) {
+        if (maxEntries < 1 || maxBytes < 1 || concurrencyLevel < 1) {
+            throw new IllegalArgumentException("The cache bounds must be positive");
+        }
+
+        // Every segment must be able to keep at least one entry
+        int count = Math.min(concurrencyLevel, maxEntries);
+
+        segments = new Segment[count];
+        for (int i=0;i<count;i++) {
+            segments[i] = new Segment(
+                    divideRoundingUp(maxEntries, count), divideRoundingUp(maxBytes, count), stats);
+        }
+    }
+
+    @Override
+    public void addPokemonDetails(PokemonDetails details) {
+        addPokemonDetails(details, System.currentTimeMillis());
+    }
+
+    /**
+     * @param details The details to cache
+     * @param addedAt When the details were fetched, in milliseconds since the epoch
+     */
+    public void addPokemonDetails(PokemonDetails details, long addedAt) {
+        if (details == null || !PokemonDetailsLog.hasId(details.getId())) {
+            return;
+        }
+
+        segmentOf(details.getId()).put(new Entry(details, addedAt), false);
+    }
+
+    /**
+     * Adds the details only if there are no details for the same pokemon yet, or the cached ones
+     * were fetched before them. That is how the details of a file are merged with newer ones.
+     * @return true if the details were added
+     */
+    public boolean addPokemonDetailsIfNewer(PokemonDetails details, long addedAt) {
+        if (details == null || !PokemonDetailsLog.hasId(details.getId())) {
+            return false;
+        }
+
+        return segmentOf(details.getId()).put(new Entry(details, addedAt), true);
+    }
+
+    /**
+     * @return All the cached details with the time they were fetched. Every segment is listed
+     *         from its least to its most recently used details.
+     */
+    List<PokemonDetailsLog.Record> getRecords() {
+        ArrayList<PokemonDetailsLog.Record> records = new ArrayList<>();
+        for (int i=0;i<segments.length;i++) {
+            segments[i].addRecordsTo(records);
+        }
+
+        return records;
+    }
+
+    @Override
+    public boolean hasPokemonDetails(String id) {
+        return id != null && segmentOf(id).contains(id);
+    }
+
+    @Override
+    public PokemonDetails getPokemonDetails(String id) {
+        Entry entry = id != null ? segmentOf(id).get(id) : null;
+        return entry != null ? entry.getDetails() : null;
+    }
+
+    /**
+     * Looks the details up only once, so they can't be evicted between the check of their age and
+     * the read
+     * @param id The pokemon id
+     * @param minAddedAt The earliest time the details may have been fetched at
+     * @return The cached details if they were fetched at or after minAddedAt, otherwise null
+     */
+    public PokemonDetails getPokemonDetailsAddedSince(String id, long minAddedAt) {
+        Entry entry = id != null ? segmentOf(id).get(id) : null;
+        return entry != null && entry.addedAt >= minAddedAt ? entry.getDetails() : null;
+    }
+
+    @Override
+    public long getPokemonDetailsAge(String id) {
+        long addedAt = getAddedAt(id);
+        return addedAt >= 0 ? Math.max(0, System.currentTimeMillis() - addedAt) : -1;
+    }
+
+    /**
+     * @param id The pokemon id
+     * @return When the cached details were fetched, or -1 if they are not cached. Like any
+     *         lookup it counts as a use of the entry.
+     */
+    public long getAddedAt(String id) {
+        Entry entry = id != null ? segmentOf(id).get(id) : null;
+        return entry != null ? entry.addedAt : -1;
+    }
+
+    @Override
+    public void removePokemonDetails(String id) {
+        if (id != null) {
+            segmentOf(id).remove(id);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        for (int i=0;i<segments.length;i++) {
+            segments[i].clear();
+        }
+    }
+
+    /**
+     * Evicts the least recently used details until only a share of them is left. The bounds stay
+     * the same, so the cache may grow again later.
+     * @param keepFraction The share of the details to keep, from 0 to 1
+     */
+    public void trimToFraction(float keepFraction) {
+        for (int i=0;i<segments.length;i++) {
+            segments[i].trimToFraction(keepFraction);
+        }
+    }
+
+    @Override
+    public void recordRequest(boolean hit) {
+        stats.recordRequest(hit);
+    }
+
+    @Override
+    public void recordLoad(long nanos, boolean success) {
+        stats.recordLoad(nanos, success);
+    }
+
+    /**
+     * The entries and the bytes of the segments are read one after the other, so while other
+     * threads change the cache they are approximate
+     */
+    @Override
+    public PokemonDetailsCacheStats getStats() {
+        return stats.snapshot(size(), getSizeBytes());
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i=0;i<segments.length;i++) {
+            size += segments[i].size();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The estimated size of all the cached details
+     */
+    public long getSizeBytes() {
+        long bytes = 0;
+        for (int i=0;i<segments.length;i++) {
+            bytes += segments[i].getSizeBytes();
+        }
+
+        return bytes;
+    }
+
+    private Segment segmentOf(String id) {
+        // Spreading the hash, the ids are short numeric strings
+        int hash = id.hashCode();
+        hash ^= hash >>> 16;
+
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static int divideRoundingUp(int value, int divisor) {
+        return value / divisor + (value % divisor == 0 ? 0 : 1);
+    }
+
+    private static long divideRoundingUp(long value, int divisor) {
+        return value / divisor + (value % divisor == 0 ? 0 : 1);
+    }
+
+    /**
+     * Estimates how much memory the cache takes to keep the details
+     * @param details Any details
+     * @return The estimated size in bytes
+     */
+    static long sizeOf(PokemonDetails details) {
+        return new Entry(details, 0).bytes;
+    }
+
+    /**
+     * Estimates how much memory the model of the details takes
+     * @param details Any details
+     * @return The estimated size in bytes
+     */
+    static long sizeOfModel(PokemonDetails details) {
+        long size = DETAILS_BYTES + sizeOf(details.getId());
+
+        List<String> types = details.getTypes();
+        if (types != null) {
+            size += LIST_BYTES + types.size() * REFERENCE_BYTES;
+            for (int i=0;i<types.size();i++) {
+                size += sizeOf(types.get(i));
+            }
+        }
+
+        List<PokemonAbility> abilities = details.getAbilities();
+        if (abilities != null) {
+            size += LIST_BYTES + abilities.size() * REFERENCE_BYTES;
+            for (int i=0;i<abilities.size();i++) {
+                PokemonAbility ability = abilities.get(i);
+                if (ability != null) {
+                    size += OBJECT_BYTES + sizeOf(ability.getName());
+                }
+            }
+        }
+
+        List<PokemonStat> stats = details.getStats();
+        if (stats != null) {
+            size += LIST_BYTES + stats.size() * REFERENCE_BYTES;
+            for (int i=0;i<stats.size();i++) {
+                PokemonStat stat = stats.get(i);
+                if (stat != null) {
+                    size += OBJECT_BYTES + sizeOf(stat.getName());
+                }
+            }
+        }
+
+        return size;
+    }
+
+    private static long sizeOf(String value) {
+        return value != null ? STRING_BYTES + 2L * value.length() : 0;
+    }
+
+    /*
+        A strict LRU with its own lock
+     */
+    private static class Segment {
+        private final int maxEntries;
+        private final long maxBytes;
+        private final CacheStatsCounter stats;
+
+        // Access ordered, so the eldest entry is always the least recently used one
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        Segment(int maxEntries, long maxBytes, CacheStatsCounter stats) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+            this.stats = stats;
+        }
+
+        synchronized boolean put(Entry entry, boolean onlyIfNewer) {
+            Entry current = onlyIfNewer ? entries.get(entry.getId()) : null;
+            if (current != null && current.addedAt >= entry.addedAt) {
+                return false;
+            }
+
+            Entry previous = entries.put(entry.getId(), entry);
+
+            bytes += entry.bytes;
+            if (previous != null) {
+                bytes -= previous.bytes;
+            }
+
+            trim();
+            return true;
+        }
+
+        synchronized boolean contains(String id) {
+            return entries.containsKey(id);
+        }
+
+        synchronized Entry get(String id) {
+            return entries.get(id);
+        }
+
+        synchronized void remove(String id) {
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                bytes -= entry.bytes;
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        synchronized void addRecordsTo(List<PokemonDetailsLog.Record> records) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next().getValue();
+                records.add(new PokemonDetailsLog.Record(
+                        entry.getId(), entry.addedAt, entry.getDetails()));
+            }
+        }
+
+        synchronized void trimToFraction(float keepFraction) {
+            trim((int) (entries.size() * keepFraction), maxBytes);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long getSizeBytes() {
+            return bytes;
+        }
+
+        /*
+            Evicts the least recently used details until both bounds are respected. A single entry
+            that is larger than the byte bound is not kept either.
+         */
+        private void trim() {
+            trim(maxEntries, maxBytes);
+        }
+
+        private void trim(int maxEntries, long maxBytes) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+
+            while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+                bytes -= iterator.next().getValue().bytes;
+                iterator.remove();
+                stats.recordEviction();
+            }
+        }
+    }
+
+    /*
+        Keeps either the compact details or, if they don't fit in it, the model
+     */
+    private static class Entry {
+        final CompactPokemonDetails compact;
+        final PokemonDetails details;
+        final long bytes;
+        final long addedAt;
+
+        Entry(PokemonDetails details, long addedAt) {
+            this.compact = CompactPokemonDetails.encode(details, PokemonNameCodes.get());
+            this.details = compact == null ? details : null;
+            this.bytes = compact != null ? compact.sizeOf() : sizeOfModel(details);
+            this.addedAt = addedAt;
+        }
+
+        String getId() {
+            return compact != null ? compact.getId() : details.getId();
+        }
+
+        PokemonDetails getDetails() {
+            return compact != null ? compact.decode(PokemonNameCodes.get()) : details;
+        }
+    }
+}
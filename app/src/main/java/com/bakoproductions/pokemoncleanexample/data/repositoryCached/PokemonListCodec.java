@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes a page of the list in a compact binary form and reads it back. A pokemon is only its
+ * name and its url, the id is taken from the url when it is needed.
+ *
+ * A null list is written as the count -1 and a null link as a missing one, so the pages are read
+ * back exactly as they were.
+ */
+class PokemonListCodec {
+    private static final int NULL_LIST = -1;
+
+    void write(DataOutput out, PokemonList page) throws IOException {
+        writeLink(out, page.getNextLink());
+
+        ArrayList<Pokemon> pokemonList = page.getPokemonList();
+        out.writeInt(pokemonList != null ? pokemonList.size() : NULL_LIST);
+        if (pokemonList != null) {
+            for (int i=0;i<pokemonList.size();i++) {
+                Pokemon pokemon = pokemonList.get(i);
+                out.writeBoolean(pokemon != null);
+
+                if (pokemon != null) {
+                    writeString(out, pokemon.getName());
+                    writeLink(out, pokemon.getUrl());
+                }
+            }
+        }
+    }
+
+    PokemonList read(DataInput in) throws IOException {
+        PokemonList page = new PokemonList();
+        page.setNextLink(readLink(in));
+
+        int count = in.readInt();
+        if (count == NULL_LIST) {
+            page.setPokemonList(null);
+            return page;
+        }
+
+        ArrayList<Pokemon> pokemonList = new ArrayList<>(count);
+        for (int i=0;i<count;i++) {
+            Pokemon pokemon = null;
+
+            if (in.readBoolean()) {
+                pokemon = new Pokemon();
+                pokemon.setName(readString(in));
+                pokemon.setUrl(readLink(in));
+            }
+
+            pokemonList.add(pokemon);
+        }
+        page.setPokemonList(pokemonList);
+
+        return page;
+    }
+
+    private static void writeLink(DataOutput out, Link link) throws IOException {
+        out.writeBoolean(link != null);
+        if (link != null) {
+            writeString(out, link.getLinkUrl());
+        }
+    }
+
+    private static Link readLink(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        Link link = new Link();
+        link.setLinkUrl(readString(in));
+        return link;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
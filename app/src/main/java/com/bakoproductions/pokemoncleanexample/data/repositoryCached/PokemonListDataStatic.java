@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.memory.TrimPolicy;
+import com.bakoproductions.pokemoncleanexample.domain.memory.Trimmable;
+import com.bakoproductions.pokemoncleanexample.presentation.components.PokemonApplication;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The list page cache of the app. Going back to the list or rotating the screen shows the pages
+ * we already have without touching the network, in this session and in the next ones.
+ */
+public class PokemonListDataStatic extends PokemonListPageCache implements Trimmable {
+    // The whole list is a few tens of pages of 20 pokemon
+    private static final int MAX_PAGES = 100;
+
+    private static final String FILE_NAME = "pokemon_list_pages.bin";
+
+    // New pokemon are added to the api only with a new game, we pick them up within a week
+    private static final int TTL_DAYS = 7;
+
+    private static PokemonListDataStatic INSTANCE;
+
+    public static synchronized PokemonListDataStatic get() {
+        if (INSTANCE == null) {
+            // Loaded by the PokemonSnapshotStatic, from the snapshot or from its own file
+            INSTANCE = new PokemonListDataStatic();
+        }
+
+        return INSTANCE;
+    }
+
+    private PokemonListDataStatic() {
+        super(createFile(), MAX_PAGES, TTL_DAYS, TimeUnit.DAYS, CacheDiskExecutor.get());
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        trimMemory(TrimPolicy.getKeepFraction(level));
+    }
+
+    private static File createFile() {
+        try {
+            return new File(PokemonApplication.getInstance().getFilesDir(), FILE_NAME);
+        } catch (IllegalStateException e) {
+            // There is no application to give us a directory (e.g. in tests),
+            // so we keep the pages only in memory
+            return null;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonListDataCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of the list pages in memory and on the disk.
+ *
+ * The lookups are answered only by the memory, which keeps the most recently used pages. The
+ * whole list is a few tens of pages of names and urls, so every change just schedules a rewrite
+ * of one small file on the executor. Many changes in a row are written once. When the cache is
+ * loaded the executor reads the file back into memory, so a new session starts with the pages
+ * of the previous ones.
+ *
+ * Pages older than the time to live count as missing.
+ *
+ * When the system runs low on memory a part of the pages is given back. They stay in the file, so
+ * the next session still finds them, and the next write keeps them there.
+ */
+public class PokemonListPageCache implements PokemonListDataCache {
+    private static final int MAGIC = 0x504b4c50;
+    private static final int VERSION = 1;
+
+    // The links are urls, so a first page key can never be mistaken for a link
+    private static final String FIRST_PAGE_KEY = "first-page:";
+
+    private final File file;
+    private final int maxPages;
+    private final long ttlMillis;
+    private final Executor executor;
+    private final PokemonListCodec codec = new PokemonListCodec();
+
+    // Access ordered, so the eldest page is always the least recently used one
+    private final LinkedHashMap<String, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean writePending;
+
+    // Some pages are only in the file since the last trim, so a write has to keep them
+    private boolean trimmed;
+
+    // Grows with every change, so whoever copies the pages knows if they changed since
+    private long changes;
+
+    /**
+     * A page with its key and the time it was fetched
+     */
+    static class Record {
+        final String key;
+        final long addedAt;
+        final PokemonList page;
+
+        Record(String key, long addedAt, PokemonList page) {
+            this.key = key;
+            this.addedAt = addedAt;
+            this.page = page;
+        }
+    }
+
+    /**
+     * @param file The file that keeps the pages, or null to keep them only in memory
+     * @param maxPages How many pages we keep at most
+     * @param ttl How long the pages stay fresh
+     * @param unit The unit of the ttl
+     * @param executor Runs the disk work, it must run one task at a time and never on the
+     *                 main thread
+     */
+    public PokemonListPageCache(File file, int maxPages, long ttl, TimeUnit unit, Executor executor) {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("The cache bound must be positive");
+        }
+
+        this.file = file;
+        this.maxPages = maxPages;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the file back into memory in the background. For every key the page that was
+     * fetched last is kept, whether it comes from the file or was added before it was read.
+     */
+    public void load() {
+        if (file == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadNow();
+            }
+        });
+    }
+
+    /**
+     * Does the work of load() on the calling thread, which has to be the thread of the executor
+     */
+    void loadNow() {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            readFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+            deleteFile();
+        }
+    }
+
+    /**
+     * @return When the file was written last, or 0 if there is no file
+     */
+    long getFileLastModified() {
+        return file != null ? file.lastModified() : 0;
+    }
+
+    @Override
+    public void addFirstPage(int limit, PokemonList page) {
+        add(FIRST_PAGE_KEY + limit, page, System.currentTimeMillis());
+    }
+
+    @Override
+    public void addPage(Link link, PokemonList page) {
+        if (link != null && link.isValid()) {
+            add(link.getLinkUrl(), page, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public PokemonList getFirstPage(int limit) {
+        return get(FIRST_PAGE_KEY + limit);
+    }
+
+    @Override
+    public PokemonList getPage(Link link) {
+        return link != null && link.isValid() ? get(link.getLinkUrl()) : null;
+    }
+
+    @Override
+    public void removeAll() {
+        synchronized (this) {
+            pages.clear();
+            trimmed = false;
+            changes++;
+        }
+
+        if (file == null) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deleteFile();
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * Gives back a part of the pages in memory, the least recently used ones. The file keeps all
+     * of them, but the lookups never read the file, so until the next session they are fetched
+     * again.
+     * @param keepFraction The share of the pages to keep in memory, from 0 to 1
+     */
+    public void trimMemory(float keepFraction) {
+        synchronized (this) {
+            int keep = (int) (pages.size() * keepFraction);
+            if (keep >= pages.size()) {
+                return;
+            }
+
+            Iterator<Page> iterator = pages.values().iterator();
+            while (pages.size() > keep && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+
+            // Not a change of the cached pages, they are all still in the file
+            trimmed = file != null;
+        }
+    }
+
+    /**
+     * @return The fresh pages from the least to the most recently used one
+     */
+    synchronized List<Record> getRecords() {
+        ArrayList<Record> records = new ArrayList<>(pages.size());
+
+        Iterator<Map.Entry<String, Page>> iterator = pages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Page> entry = iterator.next();
+            if (isFresh(entry.getValue().addedAt)) {
+                // The pages are never changed once they are cached, so they can be shared
+                records.add(new Record(
+                        entry.getKey(), entry.getValue().addedAt, entry.getValue().list));
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Adds the pages that were copied with getRecords() by an earlier session. For every key
+     * the page that was fetched last is kept.
+     */
+    synchronized void restore(List<Record> records) {
+        for (int i=0;i<records.size();i++) {
+            addIfNewer(records.get(i).key, records.get(i).page, records.get(i).addedAt);
+        }
+    }
+
+    /**
+     * @return A number that grows with every change of the pages
+     */
+    synchronized long getChangeCount() {
+        return changes;
+    }
+
+    private void add(String key, PokemonList page, long addedAt) {
+        if (page == null) {
+            return;
+        }
+
+        synchronized (this) {
+            // Whoever gave us the page may still change it
+            pages.put(key, new Page(copyOf(page), addedAt));
+            changes++;
+            trim();
+        }
+
+        scheduleWrite();
+    }
+
+    private synchronized PokemonList get(String key) {
+        Page page = pages.get(key);
+        if (page == null) {
+            return null;
+        }
+
+        if (!isFresh(page.addedAt)) {
+            pages.remove(key);
+            return null;
+        }
+
+        return copyOf(page.list);
+    }
+
+    private void addIfNewer(String key, PokemonList page, long addedAt) {
+        Page current = pages.get(key);
+        if (isFresh(addedAt) && (current == null || current.addedAt < addedAt)) {
+            pages.put(key, new Page(page, addedAt));
+            trim();
+        }
+    }
+
+    private void trim() {
+        Iterator<Page> iterator = pages.values().iterator();
+
+        while (pages.size() > maxPages && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private boolean isFresh(long addedAt) {
+        return System.currentTimeMillis() - addedAt < ttlMillis;
+    }
+
+    private void scheduleWrite() {
+        synchronized (this) {
+            if (file == null || writePending) {
+                return;
+            }
+
+            writePending = true;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeFile();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /*
+        The pages in the file are in the order of their last use, so the most recently used
+        ones are read last and end up as the most recently used again
+     */
+    private void writeFile() throws IOException {
+        ArrayList<Record> records = new ArrayList<>();
+        HashSet<String> inMemory = new HashSet<>();
+        boolean keepTrimmed;
+        synchronized (this) {
+            // Every change after this point schedules a new write
+            writePending = false;
+            keepTrimmed = trimmed;
+
+            for (Map.Entry<String, Page> entry : pages.entrySet()) {
+                records.add(new Record(
+                        entry.getKey(), entry.getValue().addedAt, entry.getValue().list));
+                inMemory.add(entry.getKey());
+            }
+        }
+
+        if (keepTrimmed) {
+            // The trimmed pages were used before everything still in memory
+            ArrayList<Record> onlyInFile = new ArrayList<>();
+            List<Record> inFile = readRecords();
+            for (int i=0;i<inFile.size();i++) {
+                if (!inMemory.contains(inFile.get(i).key) && isFresh(inFile.get(i).addedAt)) {
+                    onlyInFile.add(inFile.get(i));
+                }
+            }
+
+            records.addAll(0, onlyInFile);
+            if (records.size() > maxPages) {
+                records.subList(0, records.size() - maxPages).clear();
+            }
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        File parent = temp.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        // The pages are never changed once they are cached, so they can be written without the lock
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size());
+
+            for (int i=0;i<records.size();i++) {
+                out.writeUTF(records.get(i).key);
+                out.writeLong(records.get(i).addedAt);
+                codec.write(out, records.get(i).page);
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            // Some file systems don't replace on rename
+            if (!file.delete() || !temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+    }
+
+    private void readFile() throws IOException {
+        List<Record> records = readRecords();
+
+        synchronized (this) {
+            for (int i=0;i<records.size();i++) {
+                addIfNewer(records.get(i).key, records.get(i).page, records.get(i).addedAt);
+            }
+
+            // Everything in the file is in memory again
+            trimmed = false;
+        }
+    }
+
+    /*
+        The pages of the file in the order they were written
+     */
+    private List<Record> readRecords() throws IOException {
+        ArrayList<Record> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown format of " + file);
+            }
+
+            int count = in.readInt();
+            for (int i=0;i<count;i++) {
+                String key = in.readUTF();
+                long addedAt = in.readLong();
+                records.add(new Record(key, addedAt, codec.read(in)));
+            }
+        } finally {
+            in.close();
+        }
+
+        return records;
+    }
+
+    private void deleteFile() {
+        if (file.exists() && !file.delete()) {
+            System.err.println("Could not delete " + file);
+        }
+    }
+
+    // Only the list is copied, the pokemon in it are never changed
+    private static PokemonList copyOf(PokemonList page) {
+        PokemonList copy = new PokemonList();
+        copy.setNextLink(page.getNextLink());
+        copy.setPokemonList(page.getPokemonList() != null
+                ? new ArrayList<>(page.getPokemonList())
+                : null);
+
+        return copy;
+    }
+
+    private static class Page {
+        final PokemonList list;
+        final long addedAt;
+
+        Page(PokemonList list, long addedAt) {
+            this.list = list;
+            this.addedAt = addedAt;
+        }
+    }
+}
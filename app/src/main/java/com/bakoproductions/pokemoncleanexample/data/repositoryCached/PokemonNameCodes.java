@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonNamePool;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every type, ability and stat name a small number, so the cache can keep the numbers
+ * instead of the strings. The numbers only live as long as the process, they are never written
+ * anywhere.
+ *
+ * The types and the stats are known in advance, so they get the smallest numbers. Every other
+ * name gets the next free number the first time it is seen, until there are MAX_CODES of them.
+ */
+class PokemonNameCodes {
+    // The code of a null name
+    static final int NULL = 0;
+    // The code of a name that didn't fit any more
+    static final int NONE = -1;
+
+    // There are about 20 types, 6 stats and a few hundred abilities
+    static final int MAX_CODES = 4096;
+
+    private static final String[] KNOWN_NAMES = {
+            "normal", "fighting", "flying", "poison", "ground", "rock", "bug", "ghost", "steel",
+            "fire", "water", "grass", "electric", "psychic", "ice", "dragon", "dark", "fairy",
+            "unknown", "shadow",
+            "hp", "attack", "defense", "special-attack", "special-defense", "speed",
+            "accuracy", "evasion"
+    };
+
+    private static final PokemonNameCodes INSTANCE = new PokemonNameCodes();
+
+    static PokemonNameCodes get() {
+        return INSTANCE;
+    }
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+
+    // Only ever grows. A name is stored before its code is published in the map, so whoever
+    // got a code from the map finds its name here.
+    private volatile String[] names = new String[64];
+    private int count = 1;
+
+    PokemonNameCodes() {
+        for (int i=0;i<KNOWN_NAMES.length;i++) {
+            encode(KNOWN_NAMES[i]);
+        }
+    }
+
+    /**
+     * @param name Any name or null
+     * @return The code of the name, or NONE if there are too many names already
+     */
+    int encode(String name) {
+        if (name == null) {
+            return NULL;
+        }
+
+        Integer code = codes.get(name);
+        return code != null ? code : add(name);
+    }
+
+    /**
+     * @param code A code that encode(...) returned
+     * @return The name of the code, always the same instance for the same code
+     */
+    String decode(int code) {
+        return names[code];
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    private synchronized int add(String name) {
+        Integer code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+
+        if (count >= MAX_CODES) {
+            return NONE;
+        }
+
+        if (count == names.length) {
+            String[] grown = new String[Math.min(MAX_CODES, count * 2)];
+            System.arraycopy(names, 0, grown, 0, count);
+            names = grown;
+        }
+
+        // The decoded details share the names with the ones that were just mapped
+        names[count] = PokemonNamePool.get().intern(name);
+        codes.put(name, count);
+
+        return count++;
+    }
+}
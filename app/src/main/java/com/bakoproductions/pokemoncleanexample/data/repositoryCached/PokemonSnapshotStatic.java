@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.data.rest.MainThreadExecutor;
+import com.bakoproductions.pokemoncleanexample.presentation.components.PokemonApplication;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The snapshot of the list pages and the details cache of the app. It loads both caches when the
+ * app starts, so the list can show the pages of the last session in its first frame.
+ */
+public class PokemonSnapshotStatic extends CacheSnapshotter {
+    private static final String FILE_NAME = "pokemon_snapshot.bin";
+
+    // The caches change in bursts while the user scrolls, a minute is enough to catch up
+    private static final int PERIOD_SECONDS = 60;
+
+    private static PokemonSnapshotStatic INSTANCE;
+
+    public static synchronized PokemonSnapshotStatic get() {
+        if (INSTANCE == null) {
+            INSTANCE = new PokemonSnapshotStatic();
+            INSTANCE.start();
+        }
+
+        return INSTANCE;
+    }
+
+    private PokemonSnapshotStatic() {
+        super(
+                createFile(),
+                PokemonDetailsDataStatic.get(),
+                PokemonListDataStatic.get(),
+                CacheDiskExecutor.get(),
+                MainThreadExecutor.get(),
+                PERIOD_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    private static File createFile() {
+        try {
+            return new File(PokemonApplication.getInstance().getFilesDir(), FILE_NAME);
+        } catch (IllegalStateException e) {
+            // There is no application to give us a directory (e.g. in tests),
+            // so there is no snapshot either
+            return null;
+        }
+    }
+}
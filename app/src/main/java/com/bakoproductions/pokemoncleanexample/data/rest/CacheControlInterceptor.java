@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * A network interceptor that applies our own freshness policy to every successful GET response.
+ *
+ * The pokeapi data are effectively immutable, so whatever the server says about caching we
+ * let the http cache keep the responses fresh for the given max age.
+ */
+public class CacheControlInterceptor implements Interceptor {
+    private final String cacheControl;
+
+    /**
+     * @param maxAge How long a response is considered fresh
+     * @param unit The unit of the max age
+     */
+    public CacheControlInterceptor(int maxAge, TimeUnit unit) {
+        cacheControl = new CacheControl.Builder()
+                .maxAge(maxAge, unit)
+                .build()
+                .toString();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        // Only the successful reads are worth keeping
+        if (!"GET".equals(request.method()) || !response.isSuccessful()) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", cacheControl)
+                .build();
+    }
+}
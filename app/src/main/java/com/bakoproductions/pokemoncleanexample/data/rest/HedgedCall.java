@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A Call that sends a second, identical request when the first one takes longer than a delay
+ * and delivers whichever answer comes first. The other request is canceled.
+ *
+ * The delay should be around the p95 latency of the endpoint, so only the slowest requests are
+ * duplicated. A failure is delivered only when no other request can still answer.
+ *
+ * Only enqueue is hedged, execute just runs the original call.
+ *
+ * @param <T> The body type of the call
+ */
+public class HedgedCall<T> implements Call<T> {
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "HedgedCall scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final Call<T> primary;
+    private final long delayMillis;
+
+    private Call<T> hedge;
+    private ScheduledFuture<?> hedgeTimer;
+    private int running;
+    private boolean finished;
+    private boolean canceled;
+
+    /**
+     * @param primary The call that is sent first, it is cloned for the second request
+     * @param delayMillis How long we wait for the first answer before sending the second request
+     */
+    public HedgedCall(Call<T> primary, long delayMillis) {
+        this.primary = primary;
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        return primary.execute();
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        synchronized (this) {
+            running++;
+            hedgeTimer = SCHEDULER.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    startHedge(callback);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        primary.enqueue(new Attempt(primary, callback));
+    }
+
+    private void startHedge(Callback<T> callback) {
+        Call<T> call;
+
+        synchronized (this) {
+            if (finished || canceled) {
+                return;
+            }
+
+            call = primary.clone();
+            hedge = call;
+            running++;
+        }
+
+        call.enqueue(new Attempt(call, callback));
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return primary.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        Call<T> other;
+
+        synchronized (this) {
+            canceled = true;
+            other = hedge;
+
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+        }
+
+        primary.cancel();
+        if (other != null) {
+            other.cancel();
+        }
+    }
+
+    /*
+        Only a cancel of this call counts. The losing request is canceled before the answer of the
+        winner is delivered, so its state says nothing about this call.
+     */
+    @Override
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new HedgedCall<>(primary.clone(), delayMillis);
+    }
+
+    @Override
+    public Request request() {
+        return primary.request();
+    }
+
+    private class Attempt implements Callback<T> {
+        private final Call<T> attempt;
+        private final Callback<T> callback;
+
+        Attempt(Call<T> attempt, Callback<T> callback) {
+            this.attempt = attempt;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onResponse(Call<T> call, Response<T> response) {
+            Call<T> loser;
+
+            synchronized (HedgedCall.this) {
+                running--;
+                if (finished) {
+                    return;
+                }
+
+                finished = true;
+                hedgeTimer.cancel(false);
+                loser = attempt == primary ? hedge : primary;
+            }
+
+            if (loser != null) {
+                loser.cancel();
+            }
+
+            callback.onResponse(HedgedCall.this, response);
+        }
+
+        @Override
+        public void onFailure(Call<T> call, Throwable t) {
+            synchronized (HedgedCall.this) {
+                running--;
+                // The other request may still answer
+                if (finished || running > 0) {
+                    return;
+                }
+
+                finished = true;
+                hedgeTimer.cancel(false);
+            }
+
+            callback.onFailure(HedgedCall.this, t);
+        }
+    }
+}
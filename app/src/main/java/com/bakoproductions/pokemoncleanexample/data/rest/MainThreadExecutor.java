@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the given tasks on the main thread, where the buses deliver their events
+ */
+public class MainThreadExecutor implements Executor {
+    private static MainThreadExecutor INSTANCE;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    public static synchronized MainThreadExecutor get() {
+        if (INSTANCE == null) {
+            INSTANCE = new MainThreadExecutor();
+        }
+
+        return INSTANCE;
+    }
+
+    private MainThreadExecutor() {}
+
+    @Override
+    public void execute(Runnable command) {
+        handler.post(command);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A Call that transforms the body of every successful response of another Call. This way the
+ * repository can work with the domain models no matter how the response was decoded.
+ *
+ * When enqueued the body is transformed on the thread the other Call delivers to, for our
+ * Retrofit that is the MappingExecutor, and only the finished model is handed to the callback
+ * on its executor. A transformation that fails is delivered as a failure.
+ *
+ * @param <F> The body type of the wrapped call
+ * @param <T> The body type of this call
+ */
+public class MappedCall<F, T> implements Call<T> {
+    public interface Mapper<F, T> {
+        T transform(F body);
+    }
+
+    // Runs the callback on the thread that mapped the body
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Call<F> delegate;
+    private final Mapper<F, T> mapper;
+    private final Executor callbackExecutor;
+
+    public MappedCall(Call<F> delegate, Mapper<F, T> mapper) {
+        this(delegate, mapper, DIRECT);
+    }
+
+    /**
+     * @param delegate The call whose body is transformed
+     * @param mapper The transformation
+     * @param callbackExecutor Where the callback is given the transformed response
+     */
+    public MappedCall(Call<F> delegate, Mapper<F, T> mapper, Executor callbackExecutor) {
+        this.delegate = delegate;
+        this.mapper = mapper;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return A mapper that keeps the body as it is, for a call that only has to change threads
+     */
+    public static <T> Mapper<T, T> identity() {
+        return new Mapper<T, T>() {
+            @Override
+            public T transform(T body) {
+                return body;
+            }
+        };
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        return map(delegate.execute());
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        delegate.enqueue(new Callback<F>() {
+            @Override
+            public void onResponse(Call<F> call, Response<F> response) {
+                final Response<T> mapped;
+
+                try {
+                    mapped = map(response);
+                } catch (RuntimeException e) {
+                    onFailure(call, e);
+                    return;
+                }
+
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onResponse(MappedCall.this, mapped);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Call<F> call, final Throwable t) {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure(MappedCall.this, t);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new MappedCall<>(delegate.clone(), mapper, callbackExecutor);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+
+    private Response<T> map(Response<F> response) {
+        if (response.isSuccessful()) {
+            return Response.success(mapper.transform(response.body()), response.raw());
+        }
+
+        return Response.error(response.errorBody(), response.raw());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads that map the GSON entities into the domain models, between the network threads
+ * and the main thread. The JSON itself is parsed by the converter on the network threads before
+ * the response gets here, so only the mappers run on these threads. The fused domain client
+ * doesn't use them at all.
+ *
+ * There is a thread for every core and a bounded queue in front of them. When the queue is full
+ * the response is mapped by the thread that delivers it, which is a network thread. That is
+ * never the main thread, and it slows down the network while the mapping catches up.
+ */
+public class MappingExecutor {
+    // A page of the list or the details of a pokemon take a few milliseconds to map,
+    // the prefetching of a whole page is the most that is queued at once
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ThreadPoolExecutor INSTANCE = create(
+            Runtime.getRuntime().availableProcessors(), QUEUE_CAPACITY);
+
+    private MappingExecutor() {}
+
+    public static ThreadPoolExecutor get() {
+        return INSTANCE;
+    }
+
+    static ThreadPoolExecutor create(int threads, int queueCapacity) {
+        final AtomicInteger count = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(
+                                runnable, "Pokemon mapping #" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        // Nothing to map while the app sits idle
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
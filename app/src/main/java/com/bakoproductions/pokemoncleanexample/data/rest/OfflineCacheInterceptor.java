@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * An application interceptor that serves stale entries from the http cache when the network
+ * is not reachable.
+ *
+ * We don't ask the ConnectivityManager (and we don't need an extra permission for it), we just
+ * try the network first. If it fails we repeat the request, allowing only cached responses that
+ * are not older than the given max stale. When there is nothing in the cache the original
+ * exception is thrown, so the repository still reports a network error.
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+    private final CacheControl offlineCacheControl;
+
+    /**
+     * @param maxStale How old a cached response can be in order to be served while offline
+     * @param unit The unit of the max stale
+     */
+    public OfflineCacheInterceptor(int maxStale, TimeUnit unit) {
+        offlineCacheControl = new CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(maxStale, unit)
+                .build();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        try {
+            return chain.proceed(request);
+        } catch (IOException e) {
+            if (!"GET".equals(request.method())) {
+                throw e;
+            }
+
+            Response cached = chain.proceed(
+                    request.newBuilder()
+                            .cacheControl(offlineCacheControl)
+                            .build()
+            );
+
+            // OkHttp answers with 504 when only-if-cached can't be satisfied
+            if (cached.code() == HttpURLConnection.HTTP_GATEWAY_TIMEOUT) {
+                cached.close();
+                throw e;
+            }
+
+            return cached;
+        }
+    }
+}
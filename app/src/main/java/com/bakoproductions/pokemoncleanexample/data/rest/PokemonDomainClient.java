@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import retrofit2.Call;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Url;
+
+/**
+ * The same endpoints as the PokemonClient, but the responses are decoded directly into the
+ * domain models by the PokemonDomainConverterFactory
+ */
+public interface PokemonDomainClient {
+    @GET("pokemon/")
+    Call<PokemonList> getPokemonList(@Query("limit") int limit);
+
+    @GET
+    Call<PokemonList> getPokemonList(@Url String nextUrl);
+
+    @GET("pokemon/{id}/")
+    Call<PokemonDetails> getPokemonDetails(@Path("id") String id);
+}
@@ -16,7 +16,29 @@
 
 package com.bakoproductions.pokemoncleanexample.data.rest;
 
+import com.bakoproductions.pokemoncleanexample.BuildConfig;
+import com.bakoproductions.pokemoncleanexample.data.entities.adapters.PokemonDetailsResponseAdapter;
+import com.bakoproductions.pokemoncleanexample.data.entities.converters.PokemonDomainConverterFactory;
+import com.bakoproductions.pokemoncleanexample.data.rest.metrics.EndpointMetrics;
+import com.bakoproductions.pokemoncleanexample.data.rest.metrics.LogcatMetricsSink;
+import com.bakoproductions.pokemoncleanexample.data.rest.metrics.NetworkMetricsInterceptor;
+import com.bakoproductions.pokemoncleanexample.presentation.components.PokemonApplication;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -26,25 +48,216 @@ import retrofit2.converter.gson.GsonConverterFactory;
  */
 
 public class PokemonService {
-    private static final String BASE_URL = "http://pokeapi.co/api/v2/";
+    // pokeapi redirects every plain http request to https, so we always talk https to it
+    // in order to save the redirect round trip
+    private static final String BASE_URL = "https://pokeapi.co/api/v2/";
+    private static final HttpUrl BASE_HTTP_URL = HttpUrl.parse(BASE_URL);
+
+    // The size of the disk cache that keeps the pokeapi responses
+    private static final String HTTP_CACHE_DIR = "pokeapi_http_cache";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
+    // The pokeapi data practically never change, so we keep them fresh for a long time
+    // and we are allowed to show even older data when there is no network
+    private static final int HTTP_CACHE_MAX_AGE_DAYS = 7;
+    private static final int HTTP_CACHE_MAX_STALE_DAYS = 365;
+
+    // How many requests may run at the same time against pokeapi. The prefetching of the
+    // details must always stay below this.
+    private static final int MAX_REQUESTS_PER_HOST = 5;
 
-    private static HttpLoggingInterceptor LOG_INTERCEPTOR =
-            new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY);
+    // Only one every METRICS_SAMPLE_EVERY requests is reported to the metrics sink,
+    // the counters are updated for all of them
+    private static final int METRICS_SAMPLE_EVERY = 10;
 
-    private static OkHttpClient HTTP_CLIENT =
-            new OkHttpClient.Builder()
-                    .addInterceptor(LOG_INTERCEPTOR)
-                    .build();
+    // A failed GET is sent up to RETRY_MAX_ATTEMPTS times, waiting a random time up to
+    // RETRY_BASE_DELAY_MS, doubled on every retry, but never more than RETRY_MAX_DELAY_MS
+    private static final int RETRY_MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_DELAY_MS = 250;
+    private static final long RETRY_MAX_DELAY_MS = 2000;
 
-    private static Retrofit RETROFIT_SERVICE =
-            new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(HTTP_CLIENT)
-                    .build();
+    // A hedged request is duplicated after the p95 latency of its endpoint. Until we have
+    // measured enough requests we use the default delay.
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final long HEDGE_DEFAULT_DELAY_MS = 1000;
+    private static final long HEDGE_MIN_DELAY_MS = 100;
 
+    private static NetworkMetricsInterceptor METRICS_INTERCEPTOR =
+            new NetworkMetricsInterceptor(
+                    BuildConfig.DEBUG ? new LogcatMetricsSink() : null,
+                    METRICS_SAMPLE_EVERY);
 
+    private static OkHttpClient HTTP_CLIENT = createHttpClient();
+
+    // With FUSED_JSON_CONVERTER off, the details response is read by a streaming adapter that
+    // skips everything we don't use. With it on (the default) the domain converter below decodes
+    // the details and this adapter is never reached.
+    private static Gson GSON =
+            new GsonBuilder()
+                    .registerTypeAdapterFactory(PokemonDetailsResponseAdapter.factory())
+                    .create();
+
+    // The callbacks are where the GSON entities are mapped, so they don't run on the main
+    // thread. Whoever needs the main thread hands off to it.
+    private static Retrofit RETROFIT_SERVICE = createRetrofit(MappingExecutor.get());
+
+    // The domain models are decoded on the network thread already, there is nothing left to map
+    // on another thread, so the callbacks run right where the response was decoded
+    private static Retrofit DOMAIN_RETROFIT_SERVICE = createRetrofit(new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    });
+
+    /**
+     * @param clientInterface The Retrofit interface of the api
+     * @return The client. The callbacks of its calls run on the MappingExecutor, not on the
+     *         main thread.
+     */
     public static <S> S createClient(Class<S> clientInterface) {
         return RETROFIT_SERVICE.create(clientInterface);
     }
+
+    /**
+     * @param clientInterface The Retrofit interface of the api that returns the domain models
+     * @return The client. The callbacks of its calls run on the network thread that decoded the
+     *         response, not on the main thread.
+     */
+    public static <S> S createDomainClient(Class<S> clientInterface) {
+        return DOMAIN_RETROFIT_SERVICE.create(clientInterface);
+    }
+
+    /**
+     * The api returns absolute urls (e.g. the next page link) that may still use plain http.
+     * Following them would cost a redirect and a new connection, so we rewrite every url of the
+     * api host to the scheme of our base url.
+     * @param url Any url
+     * @return The same url with the https scheme if it belongs to the api, otherwise the url
+     *         untouched
+     */
+    public static String canonicalUrl(String url) {
+        HttpUrl httpUrl = url != null ? HttpUrl.parse(url) : null;
+
+        if (httpUrl == null
+                || !httpUrl.host().equals(BASE_HTTP_URL.host())
+                || httpUrl.scheme().equals(BASE_HTTP_URL.scheme())) {
+            return url;
+        }
+
+        return httpUrl.newBuilder()
+                .scheme(BASE_HTTP_URL.scheme())
+                .port(BASE_HTTP_URL.port())
+                .build()
+                .toString();
+    }
+
+    /**
+     * @return The url of the pokemon list, every page of it is this url with an offset and a limit
+     */
+    public static String getPokemonListUrl() {
+        return BASE_HTTP_URL.resolve("pokemon/").toString();
+    }
+
+    /**
+     * Opens the connection to the api (DNS, TLS and HTTP/2) ahead of time, so the first real
+     * request finds a hot connection in the pool. Nothing happens if there is already one.
+     */
+    public static void warmUpConnection() {
+        if (HTTP_CLIENT.connectionPool().connectionCount() > 0) {
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(BASE_HTTP_URL)
+                .head()
+                .build();
+
+        HTTP_CLIENT.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // Nothing to do, the real request will just open its own connection
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                response.close();
+            }
+        });
+    }
+
+    /**
+     * @param request The request that may be duplicated
+     * @return How long we wait for an answer to the request before we send it a second time
+     */
+    public static long getHedgeDelayMillis(Request request) {
+        EndpointMetrics metrics = METRICS_INTERCEPTOR.getEndpointMetrics(request);
+
+        if (metrics == null || metrics.getLatency().getCount() < HEDGE_MIN_SAMPLES) {
+            return HEDGE_DEFAULT_DELAY_MS;
+        }
+
+        return Math.max(HEDGE_MIN_DELAY_MS, metrics.getLatency().getPercentile(HEDGE_PERCENTILE));
+    }
+
+    /**
+     * Provides the latency, traffic and status code counters of every endpoint
+     * @return The interceptor that keeps the counters
+     */
+    public static NetworkMetricsInterceptor getNetworkMetrics() {
+        return METRICS_INTERCEPTOR;
+    }
+
+    private static Retrofit createRetrofit(Executor callbackExecutor) {
+        return new Retrofit.Builder()
+                .baseUrl(BASE_URL)
+                // Handles only the domain models, everything else falls through to GSON
+                .addConverterFactory(PokemonDomainConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(GSON))
+                .client(HTTP_CLIENT)
+                .callbackExecutor(callbackExecutor)
+                .build();
+    }
+
+    private static OkHttpClient createHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .cache(createHttpCache())
+                // The cache is the last resort, so it has to wrap the retries
+                .addInterceptor(new OfflineCacheInterceptor(
+                        HTTP_CACHE_MAX_STALE_DAYS, TimeUnit.DAYS))
+                .addInterceptor(new RetryInterceptor(new RetryPolicy(
+                        RETRY_MAX_ATTEMPTS,
+                        RETRY_BASE_DELAY_MS,
+                        RETRY_MAX_DELAY_MS,
+                        TimeUnit.MILLISECONDS)))
+                .addNetworkInterceptor(METRICS_INTERCEPTOR)
+                .addNetworkInterceptor(new CacheControlInterceptor(
+                        HTTP_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS));
+
+        // Logging the whole bodies buffers and copies every response,
+        // so it has to be enabled explicitly and only for debug builds
+        if (BuildConfig.DEBUG && BuildConfig.LOG_HTTP_BODY) {
+            builder.addInterceptor(
+                    new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY));
+        }
+
+        return builder.build();
+    }
+
+    private static Cache createHttpCache() {
+        try {
+            File directory = new File(
+                    PokemonApplication.getInstance().getCacheDir(), HTTP_CACHE_DIR);
+            return new Cache(directory, HTTP_CACHE_SIZE);
+        } catch (IllegalStateException e) {
+            // There is no application to give us a cache directory (e.g. in tests),
+            // so we just go without a cache
+            return null;
+        }
+    }
 }
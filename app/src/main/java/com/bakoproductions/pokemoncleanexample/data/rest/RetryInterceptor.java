@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * An application interceptor that sends a failed request again according to a RetryPolicy.
+ *
+ * A request is retried when the network fails transiently (e.g. a reset connection) or when the
+ * server answers with a status code that asks us to come back later. When the attempts run out the
+ * last response is returned or the last exception is thrown, so the repository reports the
+ * error exactly as before.
+ *
+ * The wait happens on the thread of the Dispatcher that runs the call.
+ */
+public class RetryInterceptor implements Interceptor {
+    private final RetryPolicy policy;
+
+    public RetryInterceptor(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        if (!policy.isRetryable(request)) {
+            return chain.proceed(request);
+        }
+
+        int attempt = 1;
+        while (true) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (attempt >= policy.getMaxAttempts()
+                        || chain.call().isCanceled()
+                        || !policy.isRetryable(e)) {
+                    throw e;
+                }
+
+                waitBeforeRetry(attempt++);
+                continue;
+            }
+
+            if (attempt >= policy.getMaxAttempts()
+                    || chain.call().isCanceled()
+                    || !policy.isRetryable(response.code())) {
+                return response;
+            }
+
+            response.close();
+            waitBeforeRetry(attempt++);
+        }
+    }
+
+    private void waitBeforeRetry(int retry) throws IOException {
+        try {
+            Thread.sleep(policy.getDelayMillis(retry));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
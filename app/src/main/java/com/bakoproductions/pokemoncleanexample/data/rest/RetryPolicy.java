@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+import okhttp3.Request;
+
+/**
+ * Decides which requests are retried, how many times and how long we wait before every retry.
+ *
+ * Only the GET requests are retried. The only HEAD we send warms up the connection, when it fails
+ * the first GET just opens its own, and retrying it would only hold a connection it needs. The
+ * only-if-cached fallback of the OfflineCacheInterceptor is not retried either, the cache gives
+ * the same answer every time.
+ *
+ * The wait grows exponentially with every attempt up to a max delay and is randomized between
+ * zero and that value (full jitter), so the clients that failed together don't come back together.
+ *
+ * Only the failures that may go away by themselves are retried. A host that can't be resolved
+ * (we are most likely offline) or a broken TLS setup fail the same way the next time, so they are
+ * reported right away. A canceled call is never retried, the RetryInterceptor asks the call itself.
+ */
+public class RetryPolicy {
+    // Status codes that mean "try again later" rather than "this request is wrong"
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Random random;
+
+    /**
+     * @param maxAttempts How many times a request is sent at most, including the first time
+     * @param baseDelay The upper bound of the wait before the first retry
+     * @param maxDelay The upper bound of the wait before any retry
+     * @param unit The unit of the delays
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        this(maxAttempts, baseDelay, maxDelay, unit, new Random());
+    }
+
+    RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit, Random random) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        this.random = random;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param request The request that failed
+     * @return True if the request may be sent again
+     */
+    public boolean isRetryable(Request request) {
+        return "GET".equals(request.method()) && !request.cacheControl().onlyIfCached();
+    }
+
+    /**
+     * @param code The status code of the response
+     * @return True if the server asked us, one way or another, to come back later
+     */
+    public boolean isRetryable(int code) {
+        return code == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+                || code == HTTP_TOO_MANY_REQUESTS
+                || code == HttpURLConnection.HTTP_INTERNAL_ERROR
+                || code == HttpURLConnection.HTTP_BAD_GATEWAY
+                || code == HttpURLConnection.HTTP_UNAVAILABLE
+                || code == HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * @param e The exception the request failed with
+     * @return True if the failure is transient, e.g. a reset connection or a timeout
+     */
+    public boolean isRetryable(IOException e) {
+        return !(e instanceof UnknownHostException)
+                && !(e instanceof SSLException);
+    }
+
+    /**
+     * @param retry The number of the retry, starting from 1
+     * @return How long to wait before the retry
+     */
+    public long getDelayMillis(int retry) {
+        // Stop shifting before we overflow, we are way over the max delay anyway
+        long ceiling = baseDelayMillis << Math.min(retry - 1, 20);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+
+        synchronized (random) {
+            return (long) (random.nextDouble() * (ceiling + 1));
+        }
+    }
+}
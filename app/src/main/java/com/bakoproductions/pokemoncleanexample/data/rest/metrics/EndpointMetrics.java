@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The counters of a single endpoint (e.g. "GET /api/v2/pokemon/{id}/").
+ *
+ * Every counter is atomic, nothing here takes a lock.
+ */
+public class EndpointMetrics {
+    // Status codes are grouped by class: 1xx, 2xx, 3xx, 4xx, 5xx
+    private static final int STATUS_CLASSES = 5;
+
+    private final String endpoint;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLongArray statusClasses = new AtomicLongArray(STATUS_CLASSES);
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void recordResponse(RequestMetrics metrics) {
+        requests.incrementAndGet();
+        bytesIn.addAndGet(metrics.getBytesIn());
+        bytesOut.addAndGet(metrics.getBytesOut());
+        latency.record(metrics.getTotalMillis());
+        timeToFirstByte.record(metrics.getTimeToFirstByteMillis());
+
+        int statusClass = metrics.getStatus() / 100 - 1;
+        if (statusClass >= 0 && statusClass < STATUS_CLASSES) {
+            statusClasses.incrementAndGet(statusClass);
+        }
+    }
+
+    void recordFailure(long bytesOut) {
+        requests.incrementAndGet();
+        failures.incrementAndGet();
+        this.bytesOut.addAndGet(bytesOut);
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    /**
+     * @param statusClass The first digit of the status code, e.g. 2 for every 2xx
+     * @return How many responses of that class we got
+     */
+    public long getStatusClassCount(int statusClass) {
+        if (statusClass < 1 || statusClass > STATUS_CLASSES) {
+            return 0;
+        }
+
+        return statusClasses.get(statusClass - 1);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed bucket latency histogram. Recording is a single atomic increment, so it can be
+ * called from every OkHttp thread without any locking.
+ */
+public class LatencyHistogram {
+    // The upper bound (inclusive) of every bucket in milliseconds. The last bucket holds
+    // everything slower than the last bound.
+    private static final long[] BOUNDS_MS = {
+            10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+
+    public void record(long millis) {
+        buckets.incrementAndGet(bucketOf(millis));
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i=0;i<buckets.length();i++) {
+            count += buckets.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Estimates the given percentile from the buckets
+     * @param percentile A value between 0 and 1, e.g. 0.95 for the p95
+     * @return The upper bound of the bucket that contains the percentile, or -1 if nothing
+     *         has been recorded yet
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i=0;i<buckets.length();i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return boundOf(i);
+            }
+        }
+
+        return boundOf(buckets.length() - 1);
+    }
+
+    private static int bucketOf(long millis) {
+        for (int i=0;i<BOUNDS_MS.length;i++) {
+            if (millis <= BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+
+        return BOUNDS_MS.length;
+    }
+
+    private static long boundOf(int bucket) {
+        if (bucket < BOUNDS_MS.length) {
+            return BOUNDS_MS[bucket];
+        }
+
+        // The overflow bucket has no upper bound, so we report twice the last one
+        return BOUNDS_MS[BOUNDS_MS.length - 1] * 2;
+    }
+}
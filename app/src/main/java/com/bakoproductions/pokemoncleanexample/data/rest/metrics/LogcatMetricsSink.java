@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest.metrics;
+
+import android.util.Log;
+
+/**
+ * A simple sink that writes a single line per sampled request to the logcat
+ */
+public class LogcatMetricsSink implements MetricsSink {
+    private static final String TAG = "NetworkMetrics";
+
+    @Override
+    public void onRequestMeasured(RequestMetrics metrics) {
+        Log.d(TAG, metrics.toString());
+    }
+}
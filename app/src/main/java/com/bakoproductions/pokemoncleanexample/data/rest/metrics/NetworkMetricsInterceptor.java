@@ -0,0 +1,293 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * A network interceptor that measures every request that actually goes over the wire.
+ *
+ * Unlike the BODY level logging it never buffers or copies the response body. The body source
+ * is only wrapped in order to count the bytes while the converter streams them, and the request
+ * is finished when the body is exhausted or closed.
+ *
+ * The counters of every endpoint are always updated (they are just atomic increments). Only one
+ * every N requests is handed to the MetricsSink, if there is one.
+ */
+public class NetworkMetricsInterceptor implements Interceptor {
+    private static final String ID_SEGMENT = "{id}";
+
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final MetricsSink sink;
+    private final int sampleEvery;
+
+    /**
+     * @param sink Where the sampled requests are reported. Can be null if only the counters
+     *             are needed.
+     * @param sampleEvery Report one every sampleEvery requests to the sink
+     */
+    public NetworkMetricsInterceptor(MetricsSink sink, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be at least 1");
+        }
+
+        this.sink = sink;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @param endpoint The endpoint key, e.g. "GET /api/v2/pokemon/{id}/"
+     * @return The counters of the endpoint or null if it has never been requested
+     */
+    public EndpointMetrics getEndpointMetrics(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * @param request Any request to the api
+     * @return The counters of the endpoint of the request or null if it has never been requested
+     */
+    public EndpointMetrics getEndpointMetrics(Request request) {
+        return endpoints.get(endpointOf(request));
+    }
+
+    public List<EndpointMetrics> getAllEndpointMetrics() {
+        return new ArrayList<>(endpoints.values());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        EndpointMetrics metrics = metricsOf(endpointOf(request));
+        long bytesOut = bytesOf(request);
+        long start = System.nanoTime();
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            metrics.recordFailure(bytesOut);
+            throw e;
+        }
+
+        Measurement measurement = new Measurement(
+                metrics,
+                response.code(),
+                start,
+                millisSince(start),
+                bytesOf(response.headers()),
+                bytesOut
+        );
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            measurement.finish(0);
+            return response;
+        }
+
+        return response.newBuilder()
+                .body(new MeasuredResponseBody(body, measurement))
+                .build();
+    }
+
+    private EndpointMetrics metricsOf(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        EndpointMetrics created = new EndpointMetrics(endpoint);
+        metrics = endpoints.putIfAbsent(endpoint, created);
+        return metrics != null ? metrics : created;
+    }
+
+    private void report(EndpointMetrics metrics, RequestMetrics requestMetrics) {
+        metrics.recordResponse(requestMetrics);
+
+        if (sink != null && sampleCounter.getAndIncrement() % sampleEvery == 0) {
+            sink.onRequestMeasured(requestMetrics);
+        }
+    }
+
+    /*
+        The numeric path segments are the pokemon ids, we don't want one entry per pokemon
+     */
+    static String endpointOf(Request request) {
+        StringBuilder builder = new StringBuilder(request.method()).append(' ');
+
+        List<String> segments = request.url().pathSegments();
+        for (int i=0;i<segments.size();i++) {
+            String segment = segments.get(i);
+            builder.append('/').append(isNumeric(segment) ? ID_SEGMENT : segment);
+        }
+
+        return builder.toString();
+    }
+
+    private static boolean isNumeric(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+
+        for (int i=0;i<segment.length();i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long bytesOf(Request request) {
+        long bytes = request.url().toString().length() + bytesOf(request.headers());
+
+        if (request.body() != null) {
+            try {
+                bytes += Math.max(0, request.body().contentLength());
+            } catch (IOException e) {
+                // The length is unknown, we only count the headers
+            }
+        }
+
+        return bytes;
+    }
+
+    private static long bytesOf(Headers headers) {
+        long bytes = 0;
+        for (int i=0;i<headers.size();i++) {
+            // name + ": " + value + "\r\n"
+            bytes += headers.name(i).length() + headers.value(i).length() + 4;
+        }
+
+        return bytes;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /*
+        Keeps what we measured until the headers arrived and completes the measurement when
+        the body is done. finish(...) may be called from both the exhausted read and the close,
+        only the first one counts.
+     */
+    private class Measurement {
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private final EndpointMetrics metrics;
+        private final int status;
+        private final long startNanos;
+        private final long timeToFirstByteMillis;
+        private final long headerBytes;
+        private final long bytesOut;
+
+        Measurement(EndpointMetrics metrics, int status, long startNanos, long timeToFirstByteMillis,
+                    long headerBytes, long bytesOut) {
+            this.metrics = metrics;
+            this.status = status;
+            this.startNanos = startNanos;
+            this.timeToFirstByteMillis = timeToFirstByteMillis;
+            this.headerBytes = headerBytes;
+            this.bytesOut = bytesOut;
+        }
+
+        void finish(long bodyBytes) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+
+            report(metrics, new RequestMetrics(
+                    metrics.getEndpoint(),
+                    status,
+                    timeToFirstByteMillis,
+                    millisSince(startNanos),
+                    headerBytes + bodyBytes,
+                    bytesOut
+            ));
+        }
+    }
+
+    private static class MeasuredResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final Measurement measurement;
+        private BufferedSource source;
+
+        MeasuredResponseBody(ResponseBody delegate, Measurement measurement) {
+            this.delegate = delegate;
+            this.measurement = measurement;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    private long bytesRead;
+
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+
+                        if (read == -1) {
+                            measurement.finish(bytesRead);
+                        } else {
+                            bytesRead += read;
+                        }
+
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        measurement.finish(bytesRead);
+                    }
+                });
+            }
+
+            return source;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest.metrics;
+
+/**
+ * The measurements of a single request. This is what a MetricsSink receives for every
+ * sampled request.
+ */
+public class RequestMetrics {
+    private final String endpoint;
+    private final int status;
+    private final long timeToFirstByteMillis;
+    private final long totalMillis;
+    private final long bytesIn;
+    private final long bytesOut;
+
+    RequestMetrics(String endpoint, int status, long timeToFirstByteMillis, long totalMillis,
+                   long bytesIn, long bytesOut) {
+        this.endpoint = endpoint;
+        this.status = status;
+        this.timeToFirstByteMillis = timeToFirstByteMillis;
+        this.totalMillis = totalMillis;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getTimeToFirstByteMillis() {
+        return timeToFirstByteMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    @Override
+    public String toString() {
+        return endpoint + " " + status
+                + " ttfb=" + timeToFirstByteMillis + "ms"
+                + " total=" + totalMillis + "ms"
+                + " in=" + bytesIn + "B"
+                + " out=" + bytesOut + "B";
+    }
+}
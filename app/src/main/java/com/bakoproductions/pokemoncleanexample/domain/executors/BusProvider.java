@@ -16,36 +16,36 @@
 
 package com.bakoproductions.pokemoncleanexample.domain.executors;
 
-import com.squareup.otto.Bus;
-import com.squareup.otto.ThreadEnforcer;
-
 /**
  * Created by Michael on 15/4/2017.
  *
  * This is where the instance of every bus is held.
+ *
+ * The buses deliver the events to the EventHandlers of their subscribers without any reflection.
  */
 public class BusProvider {
-    private static final Bus REST_BUS = new Bus(ThreadEnforcer.ANY);
-    private static final Bus UI_BUS = new Bus();
+    private static final EventBus UI_BUS = new EventBus("ui", EventBus.ThreadEnforcer.MAIN);
+
+    // Until the ui gives us its frames every event is posted right away
+    private static final FrameBatcher UI_DELIVERY = new FrameBatcher(UI_BUS, FrameScheduler.IMMEDIATE);
 
     // There is no reason to initiate this class
     private BusProvider() {}
 
-    /**
-     * Provides the Bus instance that operates between the Data Layer
-     * and the Domain Layer
-     * @return Bus that enforces any threads
-     */
-    public static Bus getRestBusInstance() {
-        return REST_BUS;
-    }
-
     /**
      * Provides the Bus that operates between the Domain Layer
      * and the Presentation Layer
      * @return Bus that enforces the main thread
      */
-    public static Bus getUIBusInstance() {
+    public static EventBus getUIBusInstance() {
         return UI_BUS;
     }
+
+    /**
+     * Provides the stage that posts to the UI Bus the events of every frame together
+     * @return The batcher in front of the UI Bus
+     */
+    public static FrameBatcher getUIDeliveryInstance() {
+        return UI_DELIVERY;
+    }
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+/**
+ * A handle to work that has been started and can be abandoned, e.g. a use case or the network
+ * request behind it. Once cancelled nothing is delivered anymore.
+ *
+ * Cancelling more than once, or after the work is done, does nothing.
+ */
+public interface Cancellable {
+    void cancel();
+    boolean isCancelled();
+}
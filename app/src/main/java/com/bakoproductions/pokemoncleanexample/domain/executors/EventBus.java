@@ -0,0 +1,313 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bus with the same delivery rules as the Otto bus, but without reflection.
+ *
+ * The subscribers register their EventHandlers instead of an object with @Subscribe methods,
+ * so registering is just indexing the handlers by their type, and posting calls them directly
+ * instead of through Method.invoke.
+ *
+ * Like Otto an event is delivered to the handlers of its class, its superclasses and its
+ * interfaces. The events that are posted while another event is being delivered on the same
+ * thread wait until it is done, so every handler sees the events in the order they were posted.
+ *
+ * Every post, or every postAll, is a batch. Once all its events are delivered the handlers that
+ * received any of them are told so, once.
+ */
+public class EventBus {
+    /**
+     * Decides which threads may use the bus
+     */
+    public interface ThreadEnforcer {
+        void enforce(EventBus bus);
+
+        ThreadEnforcer ANY = new ThreadEnforcer() {
+            @Override
+            public void enforce(EventBus bus) {
+                // Any thread is fine
+            }
+        };
+
+        ThreadEnforcer MAIN = new ThreadEnforcer() {
+            @Override
+            public void enforce(EventBus bus) {
+                if (Looper.myLooper() != Looper.getMainLooper()) {
+                    throw new IllegalStateException(
+                            "Event bus " + bus + " accessed from non-main thread " + Looper.myLooper());
+                }
+            }
+        };
+    }
+
+    private final String name;
+    private final ThreadEnforcer enforcer;
+
+    // The handlers of every type. A list is replaced, never changed, so posting needs no lock.
+    private final ConcurrentHashMap<Class<?>, List<EventHandlers.Entry>> handlersByType =
+            new ConcurrentHashMap<>();
+
+    // Every class of event with its superclasses and interfaces
+    private static final ConcurrentHashMap<Class<?>, Class<?>[]> HIERARCHIES =
+            new ConcurrentHashMap<>();
+
+    // What is being posted on every thread, in a single thread local since posting is the hot path
+    private final ThreadLocal<PostingState> posting = new ThreadLocal<PostingState>() {
+        @Override
+        protected PostingState initialValue() {
+            return new PostingState();
+        }
+    };
+
+    public EventBus(String name, ThreadEnforcer enforcer) {
+        this.name = name;
+        this.enforcer = enforcer;
+    }
+
+    /**
+     * @param handlers The handlers of a subscriber
+     * @throws IllegalArgumentException If they are already registered
+     */
+    public void register(EventHandlers handlers) {
+        enforcer.enforce(this);
+
+        synchronized (this) {
+            if (handlers.registered) {
+                throw new IllegalArgumentException("Handlers already registered on " + this);
+            }
+
+            List<EventHandlers.Entry> entries = handlers.getEntries();
+            for (int i=0;i<entries.size();i++) {
+                EventHandlers.Entry entry = entries.get(i);
+                List<EventHandlers.Entry> current = handlersByType.get(entry.type);
+
+                ArrayList<EventHandlers.Entry> replaced = current != null
+                        ? new ArrayList<>(current)
+                        : new ArrayList<EventHandlers.Entry>(1);
+                replaced.add(entry);
+                handlersByType.put(entry.type, replaced);
+            }
+
+            handlers.registered = true;
+        }
+    }
+
+    /**
+     * @param handlers The handlers of a subscriber. Nothing is delivered to them after this,
+     *                 even the events that were already queued for them.
+     * @throws IllegalArgumentException If they are not registered
+     */
+    public void unregister(EventHandlers handlers) {
+        enforcer.enforce(this);
+
+        synchronized (this) {
+            if (!handlers.registered) {
+                throw new IllegalArgumentException("Handlers not registered on " + this);
+            }
+
+            handlers.registered = false;
+
+            List<EventHandlers.Entry> entries = handlers.getEntries();
+            for (int i=0;i<entries.size();i++) {
+                EventHandlers.Entry entry = entries.get(i);
+                List<EventHandlers.Entry> current = handlersByType.get(entry.type);
+                if (current == null) {
+                    continue;
+                }
+
+                ArrayList<EventHandlers.Entry> replaced = new ArrayList<>(current);
+                replaced.remove(entry);
+
+                if (replaced.isEmpty()) {
+                    handlersByType.remove(entry.type);
+                } else {
+                    handlersByType.put(entry.type, replaced);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delivers the event to every handler of its type on this thread
+     * @param event The event
+     */
+    public void post(Object event) {
+        if (event == null) {
+            throw new NullPointerException("Event to post must not be null");
+        }
+
+        enforcer.enforce(this);
+        PostingState state = posting.get();
+
+        if (state.dispatching || !state.queue.isEmpty()) {
+            enqueue(state, event);
+            dispatchQueued(state);
+            return;
+        }
+
+        // Nothing else is being delivered on this thread, so the event goes straight to its
+        // handlers. Whatever they post meanwhile is queued and delivered after them.
+        state.dispatching = true;
+        try {
+            Class<?>[] types = hierarchyOf(event.getClass());
+            for (int i=0;i<types.length;i++) {
+                List<EventHandlers.Entry> handlers = handlersByType.get(types[i]);
+                if (handlers == null) {
+                    continue;
+                }
+
+                for (int j=0;j<handlers.size();j++) {
+                    deliver(state, event, handlers.get(j));
+                }
+            }
+        } finally {
+            state.dispatching = false;
+        }
+
+        dispatchQueued(state);
+    }
+
+    /**
+     * Delivers the events in their order as a single batch
+     * @param events The events
+     */
+    public void postAll(List<?> events) {
+        enforcer.enforce(this);
+        PostingState state = posting.get();
+
+        for (int i=0;i<events.size();i++) {
+            if (events.get(i) == null) {
+                throw new NullPointerException("Event to post must not be null");
+            }
+            enqueue(state, events.get(i));
+        }
+
+        dispatchQueued(state);
+    }
+
+    @Override
+    public String toString() {
+        return "[EventBus \"" + name + "\"]";
+    }
+
+    private void enqueue(PostingState state, Object event) {
+        Class<?>[] types = hierarchyOf(event.getClass());
+
+        for (int i=0;i<types.length;i++) {
+            List<EventHandlers.Entry> handlers = handlersByType.get(types[i]);
+            if (handlers == null) {
+                continue;
+            }
+
+            for (int j=0;j<handlers.size();j++) {
+                state.queue.add(new Delivery(event, handlers.get(j)));
+            }
+        }
+    }
+
+    private void dispatchQueued(PostingState state) {
+        // Whoever is already dispatching on this thread delivers what we queued
+        if (state.dispatching) {
+            return;
+        }
+
+        state.dispatching = true;
+        try {
+            Delivery delivery;
+            while ((delivery = state.queue.poll()) != null) {
+                deliver(state, delivery.event, delivery.entry);
+            }
+        } finally {
+            state.dispatching = false;
+        }
+
+        if (state.batch.isEmpty()) {
+            return;
+        }
+
+        // A listener may post again, that is a batch of its own
+        ArrayList<EventHandlers> listeners = new ArrayList<>(state.batch);
+        state.batch.clear();
+
+        for (int i=0;i<listeners.size();i++) {
+            listeners.get(i).batchDelivered();
+        }
+    }
+
+    private static void deliver(PostingState state, Object event, EventHandlers.Entry entry) {
+        entry.deliver(event);
+
+        if (entry.owner.hasBatchListener()) {
+            state.batch.add(entry.owner);
+        }
+    }
+
+    private static Class<?>[] hierarchyOf(Class<?> type) {
+        Class<?>[] hierarchy = HIERARCHIES.get(type);
+
+        if (hierarchy == null) {
+            LinkedHashSet<Class<?>> classes = new LinkedHashSet<>();
+            addHierarchy(type, classes);
+            hierarchy = classes.toArray(new Class<?>[classes.size()]);
+            HIERARCHIES.put(type, hierarchy);
+        }
+
+        return hierarchy;
+    }
+
+    private static void addHierarchy(Class<?> type, Set<Class<?>> classes) {
+        if (type == null || !classes.add(type)) {
+            return;
+        }
+
+        Class<?>[] interfaces = type.getInterfaces();
+        for (int i=0;i<interfaces.length;i++) {
+            addHierarchy(interfaces[i], classes);
+        }
+        addHierarchy(type.getSuperclass(), classes);
+    }
+
+    private static class PostingState {
+        final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+
+        // The handlers that received an event of the batch that is being delivered
+        final LinkedHashSet<EventHandlers> batch = new LinkedHashSet<>();
+
+        boolean dispatching;
+    }
+
+    private static class Delivery {
+        final Object event;
+        final EventHandlers.Entry entry;
+
+        Delivery(Object event, EventHandlers.Entry entry) {
+            this.event = event;
+            this.entry = entry;
+        }
+    }
+}
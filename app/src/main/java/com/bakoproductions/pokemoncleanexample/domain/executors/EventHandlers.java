@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The table of the handlers of a subscriber, one for every type of event it listens to.
+ *
+ * It is what Otto finds by scanning the @Subscribe methods, built at compile time instead. The
+ * eventbus-compiler generates a {@code <Subscriber>_EventHandlers.create(target)} for every class
+ * with {@link Subscribe} methods, and the table can also be written by hand. The bus calls the
+ * handlers directly, there is no reflection neither when the subscriber is registered nor when
+ * an event is posted.
+ *
+ * <pre>
+ *     return new EventHandlers()
+ *             .on(PokemonList.class, new EventHandler&lt;PokemonList&gt;() {...})
+ *             .on(PokemonListError.class, new EventHandler&lt;PokemonListError&gt;() {...});
+ * </pre>
+ *
+ * A subscriber that wants to apply several events at once can also listen for the end of every
+ * batch the bus delivers to it.
+ */
+public final class EventHandlers {
+    final ArrayList<Entry> entries = new ArrayList<>(2);
+
+    private Runnable batchListener;
+
+    // Set by the bus, an event that was queued before the unregister is not delivered
+    volatile boolean registered;
+
+    /**
+     * @param type The type of the events, every subtype of it is delivered too
+     * @param handler Who receives them
+     * @return This table, so the handlers can be chained
+     */
+    public <T> EventHandlers on(Class<T> type, EventHandler<? super T> handler) {
+        if (type == null || handler == null) {
+            throw new NullPointerException("The type and the handler are required");
+        }
+
+        entries.add(new Entry(this, type, handler));
+        return this;
+    }
+
+    /**
+     * @param listener Runs once after the bus delivered a batch of events to these handlers,
+     *                 e.g. every event that arrived within a frame
+     * @return This table, so the handlers can be chained
+     */
+    public EventHandlers onBatchDelivered(Runnable listener) {
+        batchListener = listener;
+        return this;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    boolean hasBatchListener() {
+        return batchListener != null;
+    }
+
+    void batchDelivered() {
+        if (registered && batchListener != null) {
+            batchListener.run();
+        }
+    }
+
+    static class Entry {
+        final EventHandlers owner;
+        final Class<?> type;
+        private final EventHandler<Object> handler;
+
+        @SuppressWarnings("unchecked")
+        Entry(EventHandlers owner, Class<?> type, EventHandler<?> handler) {
+            this.owner = owner;
+            this.type = type;
+            this.handler = (EventHandler<Object>) handler;
+        }
+
+        void deliver(Object event) {
+            if (owner.registered) {
+                handler.onEvent(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import java.util.ArrayList;
+
+/**
+ * The stage in front of the UI bus that collects the events of a frame.
+ *
+ * The results that arrive together (e.g. pages that complete in the same frame) would each be
+ * a post of their own and an update of the screen of their own. Here they wait for the start of
+ * the next frame and are then posted as a single batch, so a presenter can apply them at once.
+ */
+public class FrameBatcher {
+    private final EventBus bus;
+    private FrameScheduler scheduler;
+
+    private ArrayList<Object> pending = new ArrayList<>();
+    private boolean scheduled;
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public FrameBatcher(EventBus bus, FrameScheduler scheduler) {
+        this.bus = bus;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param scheduler Where the frames come from, the ui sets it once it exists
+     */
+    public synchronized void setScheduler(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Posts the event with the rest of the events of this frame
+     * @param event The event
+     */
+    public void post(Object event) {
+        FrameScheduler frames;
+
+        synchronized (this) {
+            pending.add(event);
+
+            if (scheduled) {
+                return;
+            }
+
+            scheduled = true;
+            frames = scheduler;
+        }
+
+        frames.scheduleFrame(flush);
+    }
+
+    private void flush() {
+        ArrayList<Object> events;
+
+        synchronized (this) {
+            scheduled = false;
+            events = pending;
+            pending = new ArrayList<>();
+        }
+
+        if (!events.isEmpty()) {
+            bus.postAll(events);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+/**
+ * Tells when the next frame of the ui starts
+ */
+public interface FrameScheduler {
+    /**
+     * @param callback Runs once, on the main thread, when the next frame starts
+     */
+    void scheduleFrame(Runnable callback);
+
+    // Without a ui there are no frames, so every callback runs right away
+    FrameScheduler IMMEDIATE = new FrameScheduler() {
+        @Override
+        public void scheduleFrame(Runnable callback) {
+            callback.run();
+        }
+    };
+}
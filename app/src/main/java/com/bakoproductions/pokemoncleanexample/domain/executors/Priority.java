@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+/**
+ * How urgent the work of a use case is, from the most to the least urgent
+ */
+public enum Priority {
+    // The user waits for it on the screen
+    USER_VISIBLE,
+    // The user will probably need it soon
+    PREFETCH,
+    // Keeps what we already have up to date
+    BACKGROUND_REFRESH
+}
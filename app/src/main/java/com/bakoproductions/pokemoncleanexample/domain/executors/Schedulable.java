@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+/**
+ * Work that the UseCaseScheduler can start when its turn comes
+ */
+public interface Schedulable {
+    /**
+     * @return How urgent the work is
+     */
+    Priority getPriority();
+
+    /**
+     * Starts the work
+     * @param onFinished Must run once, when the work has completed, failed or was cancelled
+     * @return The handle that cancels the work
+     */
+    Cancellable start(Runnable onFinished);
+}
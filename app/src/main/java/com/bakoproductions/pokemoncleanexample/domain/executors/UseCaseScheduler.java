@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Decides when every use case starts, by its priority.
+ *
+ * Every priority has its own cap of how many of its use cases may run at the same time. A use
+ * case starts only when its priority is below the cap and no more urgent use case is waiting for
+ * its turn. So when the user asks for something while their priority is full, the prefetching and
+ * the refreshing that are still waiting step back until it has started. What has already started
+ * is not interrupted, and the more urgent use cases that are running don't hold back the rest.
+ *
+ * The waiting use cases of the same priority start in the order they were scheduled. Only a few
+ * of the less urgent ones may wait, when one more comes the oldest is dropped. They are guesses
+ * (e.g. the details of a page the user scrolled past a while ago), the newest is the best one.
+ */
+public class UseCaseScheduler {
+    // The user visible work is at most the requests of a screen, the rest stays well below the
+    // requests per host of the network, so there is always room for what the user asks for
+    private static final int USER_VISIBLE_CAP = 4;
+    private static final int PREFETCH_CAP = 2;
+    private static final int BACKGROUND_REFRESH_CAP = 1;
+
+    // How many prefetching or refreshing use cases may wait for their turn, e.g. the details of
+    // the next two pages while the user scrolls
+    private static final int MAX_WAITING = 2;
+
+    private static final UseCaseScheduler INSTANCE = new UseCaseScheduler(
+            USER_VISIBLE_CAP, PREFETCH_CAP, BACKGROUND_REFRESH_CAP, MAX_WAITING);
+
+    private final int[] caps;
+    private final int maxWaiting;
+    private final int[] running;
+    private final List<LinkedList<Task>> waiting = new ArrayList<>();
+    private boolean dispatching;
+
+    public static UseCaseScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param userVisibleCap How many user visible use cases may run at the same time
+     * @param prefetchCap How many prefetching use cases may run at the same time
+     * @param backgroundRefreshCap How many refreshing use cases may run at the same time
+     * @param maxWaiting How many use cases of every priority but the user visible one may wait
+     */
+    public UseCaseScheduler(int userVisibleCap, int prefetchCap, int backgroundRefreshCap,
+                            int maxWaiting) {
+        this.caps = new int[] { userVisibleCap, prefetchCap, backgroundRefreshCap };
+        this.maxWaiting = maxWaiting;
+        this.running = new int[caps.length];
+
+        for (int i=0;i<caps.length;i++) {
+            waiting.add(new LinkedList<Task>());
+        }
+    }
+
+    /**
+     * Starts the work right away if its turn has come, otherwise it waits
+     * @param work The work, e.g. a use case
+     * @return The handle that cancels the work, whether it has started or still waits
+     */
+    public Cancellable schedule(Schedulable work) {
+        return schedule(work, null);
+    }
+
+    /**
+     * Starts the work right away if its turn has come, otherwise it waits
+     * @param work The work, e.g. a use case
+     * @param onFinished Runs once the work is done, or when it is cancelled or dropped before it
+     *                   has started. It may run on any thread, even before this method returns.
+     * @return The handle that cancels the work, whether it has started or still waits
+     */
+    public Cancellable schedule(Schedulable work, Runnable onFinished) {
+        Task task = new Task(work, onFinished);
+        Task dropped = null;
+
+        synchronized (this) {
+            LinkedList<Task> queue = waiting.get(task.priority);
+            queue.add(task);
+
+            if (work.getPriority() != Priority.USER_VISIBLE && queue.size() > maxWaiting) {
+                // It never started, so it is just dropped like a cancelled one
+                dropped = queue.poll();
+                dropped.cancelled = true;
+                dropped.finished = true;
+            }
+        }
+
+        if (dropped != null) {
+            dropped.notifyFinished();
+        }
+
+        dispatch();
+        return task;
+    }
+
+    /**
+     * @return How many use cases of the priority are running right now
+     */
+    public synchronized int getRunningCount(Priority priority) {
+        return running[priority.ordinal()];
+    }
+
+    /**
+     * @return How many use cases of the priority wait for their turn
+     */
+    public synchronized int getWaitingCount(Priority priority) {
+        return waiting.get(priority.ordinal()).size();
+    }
+
+    private void dispatch() {
+        synchronized (this) {
+            // Whoever already dispatches starts whatever we would
+            if (dispatching) {
+                return;
+            }
+            dispatching = true;
+        }
+
+        while (true) {
+            Task next;
+
+            synchronized (this) {
+                next = nextTask();
+                if (next == null) {
+                    dispatching = false;
+                    return;
+                }
+
+                next.started = true;
+                running[next.priority]++;
+            }
+
+            next.start();
+        }
+    }
+
+    private Task nextTask() {
+        for (int i=0;i<waiting.size();i++) {
+            if (waiting.get(i).isEmpty()) {
+                continue;
+            }
+
+            // Nothing less urgent starts while this priority waits for a place
+            return running[i] < caps[i] ? waiting.get(i).poll() : null;
+        }
+
+        return null;
+    }
+
+    private void onFinished(Task task) {
+        synchronized (this) {
+            if (task.finished) {
+                return;
+            }
+
+            task.finished = true;
+            if (task.started) {
+                running[task.priority]--;
+            } else {
+                waiting.get(task.priority).remove(task);
+            }
+        }
+
+        task.notifyFinished();
+        dispatch();
+    }
+
+    private class Task implements Cancellable {
+        private final Schedulable work;
+        private final Runnable onFinished;
+        private final int priority;
+
+        // Guarded by the scheduler
+        private boolean started;
+        private boolean finished;
+        private boolean cancelled;
+        private Cancellable handle;
+
+        Task(Schedulable work, Runnable onFinished) {
+            this.work = work;
+            this.onFinished = onFinished;
+            this.priority = work.getPriority().ordinal();
+        }
+
+        void start() {
+            Cancellable started = work.start(new Runnable() {
+                @Override
+                public void run() {
+                    onFinished(Task.this);
+                }
+            });
+
+            boolean cancelledMeanwhile;
+            synchronized (UseCaseScheduler.this) {
+                handle = started;
+                cancelledMeanwhile = cancelled;
+            }
+
+            if (cancelledMeanwhile && started != null) {
+                started.cancel();
+            }
+        }
+
+        // Called once, outside the lock, right after the task is marked as finished
+        void notifyFinished() {
+            if (onFinished != null) {
+                onFinished.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            Cancellable running;
+            boolean dropped = false;
+
+            synchronized (UseCaseScheduler.this) {
+                if (cancelled) {
+                    return;
+                }
+
+                cancelled = true;
+                running = handle;
+
+                if (!this.started) {
+                    // It never started, so it is just dropped
+                    finished = true;
+                    dropped = true;
+                    waiting.get(priority).remove(this);
+                }
+            }
+
+            if (dropped) {
+                notifyFinished();
+            }
+
+            if (running != null) {
+                // The work tells us when it is done, that frees its place
+                running.cancel();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (UseCaseScheduler.this) {
+                return cancelled;
+            }
+        }
+    }
+}
@@ -17,7 +17,11 @@
 package com.bakoproductions.pokemoncleanexample.domain.interactors;
 
 import com.bakoproductions.pokemoncleanexample.domain.executors.BusProvider;
-import com.squareup.otto.Bus;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.executors.EventBus;
+import com.bakoproductions.pokemoncleanexample.domain.executors.FrameBatcher;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Priority;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Schedulable;
 
 /**
  * Created by Michael on 15/4/2017.
@@ -26,48 +30,116 @@ import com.squareup.otto.Bus;
  * This can become really helpful when we need to add a functionality to perform authorization
  * requests between the calls, or to prevent the calls from executing when there is a
  * server downtime. In any ways this is it's basic template
+ *
+ * Every use case is also the handle that cancels it. A cancelled use case stops listening,
+ * cancels the request it started in the data layer and never posts anything again.
+ *
+ * What the use case posts while it executes (e.g. cached data) reaches the presenter right away.
+ * What it posts later, when the data layer answers, is posted with everything else that arrives
+ * in the same frame.
+ *
+ * When the UseCaseScheduler starts the use case it has to be told when the use case is finished,
+ * so a use case that waits for the data layer calls finish() once it has its answer.
  */
-public abstract class BaseUseCase {
-    private final Bus uiBus;
-    private Object useCaseSubscriber;
+public abstract class BaseUseCase implements Cancellable, Schedulable {
+    private final EventBus uiBus;
+    private final FrameBatcher uiDelivery;
+    private boolean executing;
+
+    private Cancellable request;
+    private boolean cancelled;
+
+    private Runnable onFinished;
+    private boolean finished;
 
     public BaseUseCase() {
         uiBus = BusProvider.getUIBusInstance();
+        uiDelivery = BusProvider.getUIDeliveryInstance();
     }
 
-    protected abstract Object setSubscriber();
-    protected abstract void onExecute();
+    /**
+     * @return The handle of the request the use case started, or null if there is nothing to
+     *         cancel (e.g. the data came from the cache)
+     */
+    protected abstract Cancellable onExecute();
+
+    /**
+     * @return How urgent the use case is, most of them are waited for by the user
+     */
+    @Override
+    public Priority getPriority() {
+        return Priority.USER_VISIBLE;
+    }
 
-    public void execute() {
-        // We need the child to provide it's own subscribers
-        useCaseSubscriber = setSubscriber();
+    @Override
+    public Cancellable start(Runnable onFinished) {
+        this.onFinished = onFinished;
+        return execute();
+    }
 
+    /**
+     * @return The handle that cancels the use case
+     */
+    public Cancellable execute() {
         // Just think what you can do if you provide some functionality here that prevents some
         // use cases from executing when you know that the server is under heavy load
         // We jsut simply want to execute the use case
-        onExecute();
+        executing = true;
+        try {
+            request = onExecute();
+        } finally {
+            executing = false;
+        }
+
+        // Nothing to wait for, e.g. the data came from the cache
+        if (request == null) {
+            finish();
+        }
+        return this;
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+
+        cancelled = true;
+
+        if (request != null) {
+            request.cancel();
+        }
+
+        finish();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
     }
 
     // Posting data back to the presenter
     protected void post(Object event) {
-        uiBus.post(event);
-    }
+        if (cancelled) {
+            return;
+        }
 
-    // Registering subscribers
-    protected void registerUseCaseSubscriber() {
-        try {
-            BusProvider.getRestBusInstance().register(useCaseSubscriber);
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (executing) {
+            uiBus.post(event);
+        } else {
+            uiDelivery.post(event);
         }
     }
 
-    // Unregistering subscribers
-    protected void unregisterUseCaseSubscriber() {
-        try {
-            BusProvider.getRestBusInstance().unregister(useCaseSubscriber);
-        } catch (Exception e) {
-            e.printStackTrace();
+    // Lets whoever started the use case know that it has nothing more to do
+    protected void finish() {
+        if (finished) {
+            return;
+        }
+
+        finished = true;
+        if (onFinished != null) {
+            onFinished.run();
         }
     }
 }
@@ -16,11 +16,12 @@
 
 package com.bakoproductions.pokemoncleanexample.domain.interactors;
 
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonDetailsError;
 import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDataSource;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsCallback;
 import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
-import com.squareup.otto.Subscribe;
 
 /**
  * Created by Michael on 16/4/2017.
@@ -36,12 +37,32 @@ import com.squareup.otto.Subscribe;
  * are requested this use case checks if these details exist in the cache. If they do, the use case
  * does not make a network request rather a simple request from the cash repository. Both of those
  * requests end to the data layer.
+ *
+ * When it is given a max age it works as stale while revalidate: cached details older than that
+ * are posted right away and then requested again. The fresh details are posted a second time
+ * only if they are different.
+ *
+ * Every execution records in the stats of the cache whether it was answered by the cache and,
+ * if it had to go to the data source, how long that took.
+ *
+ * The data source answers this use case through its own callback instead of a shared bus, so it
+ * never sees the details that other use cases or the prefetching requested.
  */
 public class GetPokemonDetailsUseCase extends BaseUseCase {
+    // The cached details are never revalidated
+    private static final long NO_MAX_AGE = -1;
+
     private String id;
+    private long maxAgeMillis;
     private PokemonDataSource dataSource;
     private PokemonDetailsDataCache dataCache;
 
+    // The cached details we have already posted while we revalidate them
+    private PokemonDetails stale;
+
+    // When we asked the data source for the details
+    private long loadStartNanos;
+
     /**
      * The constructor of this use case
      *
@@ -50,47 +71,70 @@ public class GetPokemonDetailsUseCase extends BaseUseCase {
      * @param dataCache The implementor of the cache
      */
     public GetPokemonDetailsUseCase(String id, PokemonDataSource dataSource, PokemonDetailsDataCache dataCache) {
+        this(id, NO_MAX_AGE, dataSource, dataCache);
+    }
+
+    /**
+     * The constructor of the stale while revalidate mode
+     *
+     * @param id The pokemon id whose details we are requesting
+     * @param maxAgeMillis How old the cached details can be before we request them again
+     * @param dataSource The implementor of the actual network request
+     * @param dataCache The implementor of the cache
+     */
+    public GetPokemonDetailsUseCase(String id, long maxAgeMillis, PokemonDataSource dataSource,
+                                    PokemonDetailsDataCache dataCache) {
         this.id = id;
+        this.maxAgeMillis = maxAgeMillis;
         this.dataSource = dataSource;
         this.dataCache = dataCache;
     }
 
-    /*
-        The parent requests to get the subscribers when it's constructor is hit
-     */
     @Override
-    protected Object setSubscriber() {
-        return new Object() {
-            @Subscribe
+    protected Cancellable onExecute() {
+        // We need to check first if the data exist in cache. It is a single lookup, the cache
+        // may evict the details at any time between two of them.
+        PokemonDetails cached = dataCache.getPokemonDetails(id);
+        boolean hit = cached != null;
+        dataCache.recordRequest(hit);
+
+        if (hit) {
+            // If they do post the data back to the presenter
+            post(cached);
+
+            // They are good enough unless they are older than we would like
+            if (maxAgeMillis == NO_MAX_AGE || dataCache.getPokemonDetailsAge(id) <= maxAgeMillis) {
+                return null;
+            }
+
+            stale = cached;
+        }
+
+        // Otherwise make the request, only its callback receives the answer
+        loadStartNanos = System.nanoTime();
+        return dataSource.getPokemonDetails(id, new PokemonDetailsCallback() {
+            @Override
             public void onPokemonDetailsReceived(PokemonDetails details) {
                 // Save the data to the cache
+                dataCache.recordLoad(System.nanoTime() - loadStartNanos, true);
                 dataCache.addPokemonDetails(details);
-                // Post it back to the PokemonDetailsPresenter
-                post(details);
-                // No need for the subscriber anymore
-                unregisterUseCaseSubscriber();
+                // Post it back to the PokemonDetailsPresenter, unless it already shows the same
+                if (stale == null || !stale.hasSameContent(details)) {
+                    post(details);
+                }
+                finish();
             }
 
-            @Subscribe
+            @Override
             public void onPokemonDetailsError(PokemonDetailsError error) {
-                // Post the error back to the PokemonDetailsPresenter
-                post(error);
-                // No need for the subscriber anymore
-                unregisterUseCaseSubscriber();
+                dataCache.recordLoad(System.nanoTime() - loadStartNanos, false);
+                // Post the error back to the PokemonDetailsPresenter. If it already shows the
+                // stale details they are still better than an error.
+                if (stale == null) {
+                    post(error);
+                }
+                finish();
             }
-        };
-    }
-
-    @Override
-    protected void onExecute() {
-        // We need to check first if the data exist in cache
-        if (dataCache.hasPokemonDetails(id)) {
-            // If they do post the data back to the presenter
-            post(dataCache.getPokemonDetails(id));
-        } else {
-            // Otherwise register the subscriber and make the request
-            registerUseCaseSubscriber();
-            dataSource.getPokemonDetails(id);
-        }
+        });
     }
 }
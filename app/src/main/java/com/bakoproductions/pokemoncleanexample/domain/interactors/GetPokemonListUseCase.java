@@ -16,77 +16,108 @@
 
 package com.bakoproductions.pokemoncleanexample.domain.interactors;
 
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
 import com.bakoproductions.pokemoncleanexample.domain.models.Link;
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonListError;
 import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDataSource;
-import com.squareup.otto.Subscribe;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonListCallback;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonListDataCache;
 
 /**
  * Created by Michael on 15/4/2017.
  *
  * This use case is responsible for getting a page of Pokemons
+ *
+ * A page that was fetched before is answered by the cache without a network request, so going
+ * back to the list or rotating the screen shows the pages right away.
+ *
+ * The data source answers this use case through its own callback instead of a shared bus, so it
+ * never caches a page that another list request asked for.
  */
 public class GetPokemonListUseCase extends BaseUseCase {
     private int limit;
     private Link nextLink;
 
     private PokemonDataSource dataSource;
+    private PokemonListDataCache dataCache;
 
     /**
      * The constructor we call to create the first page request
      * @param limit How many data we want to fetch the first time. This is also used by the rest api
      *              to know how many data will be included to every next page.
      * @param dataSource The implementor of the actual request
+     * @param dataCache The implementor of the cache
      */
-    public GetPokemonListUseCase(int limit, PokemonDataSource dataSource) {
+    public GetPokemonListUseCase(int limit, PokemonDataSource dataSource, PokemonListDataCache dataCache) {
         this.limit = limit;
         this.dataSource = dataSource;
+        this.dataCache = dataCache;
     }
 
     /**
      * The constructor we call to create every next page request
      * @param nextLink The next page's link
      * @param dataSource The implementor of the actual request
+     * @param dataCache The implementor of the cache
      */
-    public GetPokemonListUseCase(Link nextLink, PokemonDataSource dataSource) {
+    public GetPokemonListUseCase(Link nextLink, PokemonDataSource dataSource, PokemonListDataCache dataCache) {
         this.nextLink = nextLink;
         this.dataSource = dataSource;
+        this.dataCache = dataCache;
     }
 
-    /*
-        The parent requests to get the subscribers when it's constructor is hit
-     */
     @Override
-    protected Object setSubscriber() {
-        return new Object() {
-            @Subscribe
+    protected Cancellable onExecute() {
+        // We need to check first if the page exists in the cache
+        PokemonList cached = nextLink != null
+                ? dataCache.getPage(nextLink)
+                : dataCache.getFirstPage(limit);
+
+        if (cached != null) {
+            post(cached);
+
+            if (nextLink != null) {
+                return null;
+            }
+
+            // The data source may still need the first page request to get ready for the next
+            // pages (e.g. to load the whole index), so it is told that it was skipped
+            return dataSource.preparePokemonList(new Runnable() {
+                @Override
+                public void run() {
+                    finish();
+                }
+            });
+        }
+
+        PokemonListCallback callback = new PokemonListCallback() {
+            @Override
             public void onPokemonListReceived(PokemonList pokemonList) {
-                // Just post back the response and unregister the listener
+                // Save the page to the cache, then post back the response
+                if (nextLink != null) {
+                    dataCache.addPage(nextLink, pokemonList);
+                } else {
+                    dataCache.addFirstPage(limit, pokemonList);
+                }
                 post(pokemonList);
-                unregisterUseCaseSubscriber();
+                finish();
             }
 
-            @Subscribe
+            @Override
             public void onPokemonListError(PokemonListError error) {
-                // Just post back the error and unregister the listener
+                // Just post back the error
                 post(error);
-                unregisterUseCaseSubscriber();
+                finish();
             }
         };
-    }
-
-    @Override
-    protected void onExecute() {
-        // Register the listener
-        registerUseCaseSubscriber();
 
         if (nextLink != null) {
             // If the request was made by the second constructor get the next page
-            dataSource.getPokemonList(nextLink);
-        } else {
-            // Otherwise get the first page
-            dataSource.getPokemonList(limit);
+            return dataSource.getPokemonList(nextLink, callback);
         }
+
+        // Otherwise get the first page
+        return dataSource.getPokemonList(limit, callback);
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.domain.interactors;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Priority;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDataSource;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDetailsDataCache;
+
+import java.util.ArrayList;
+
+/**
+ * The use case that fetches the details of a freshly loaded page of pokemon into the cache.
+ *
+ * Input: a page of pokemon
+ * Output: nothing. The details just end up in the cache, so when the user opens any of these
+ *         pokemon the GetPokemonDetailsUseCase finds them there.
+ *
+ * It is only a guess of what the user will open, so it waits while the user waits for anything.
+ */
+public class PrefetchPokemonDetailsUseCase extends BaseUseCase {
+    private PokemonList pokemonList;
+    private PokemonDataSource dataSource;
+    private PokemonDetailsDataCache dataCache;
+
+    /**
+     * The constructor of this use case
+     *
+     * @param pokemonList The page whose details we want to prefetch
+     * @param dataSource The implementor of the actual network requests
+     * @param dataCache The implementor of the cache
+     */
+    public PrefetchPokemonDetailsUseCase(PokemonList pokemonList, PokemonDataSource dataSource,
+                                         PokemonDetailsDataCache dataCache) {
+        this.pokemonList = pokemonList;
+        this.dataSource = dataSource;
+        this.dataCache = dataCache;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.PREFETCH;
+    }
+
+    @Override
+    protected Cancellable onExecute() {
+        ArrayList<String> ids = new ArrayList<>();
+
+        for (int i=0;i<pokemonList.getPageSize();i++) {
+            Pokemon pokemon = pokemonList.getPokemonList().get(i);
+            String id = pokemon.getId();
+
+            // We only need to fetch what is not cached yet
+            if (id != null && !dataCache.hasPokemonDetails(id)) {
+                ids.add(id);
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        return dataSource.prefetchPokemonDetails(ids, dataCache, new Runnable() {
+            @Override
+            public void run() {
+                finish();
+            }
+        });
+    }
+}
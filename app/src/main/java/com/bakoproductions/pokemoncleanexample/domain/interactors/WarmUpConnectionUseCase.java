@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.domain.interactors;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.repository.PokemonDataSource;
+
+/**
+ * The use case that prepares the connection to the server before any data are requested.
+ *
+ * Input: nothing
+ * Output: nothing. The next request just finds the connection ready.
+ */
+public class WarmUpConnectionUseCase extends BaseUseCase {
+    private PokemonDataSource dataSource;
+
+    /**
+     * @param dataSource The implementor that owns the connection
+     */
+    public WarmUpConnectionUseCase(PokemonDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected Cancellable onExecute() {
+        // There is nothing to save by cancelling a single HEAD request
+        dataSource.warmUpConnection();
+        return null;
+    }
+}
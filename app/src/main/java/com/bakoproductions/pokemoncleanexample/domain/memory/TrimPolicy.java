@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.memory;
+
+import android.content.ComponentCallbacks2;
+
+/**
+ * How much of a memory cache we keep for every trim level of the system.
+ *
+ * While the app is in the foreground the system asks us to trim only when the whole device is
+ * low on memory, so we give back a part of the caches and keep the app fast. Once the app is in
+ * the background it is killed in the order of its memory, so we give back more the closer it
+ * is to the head of that list.
+ */
+public class TrimPolicy {
+    private TrimPolicy() {}
+
+    /**
+     * @param level The ComponentCallbacks2 trim level
+     * @return The share of its current size that a cache should keep, from 0 to 1
+     */
+    public static float getKeepFraction(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            // We are the next to be killed
+            return 0f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            return 0.25f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            // Nothing is shown anymore, but the user may come back soon
+            return 0.5f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 0.25f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            return 0.5f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return 0.75f;
+        }
+
+        return 1f;
+    }
+
+    /**
+     * @param size The current size of a cache
+     * @param level The ComponentCallbacks2 trim level
+     * @return The size the cache should be trimmed to
+     */
+    public static int getTrimmedSize(int size, int level) {
+        return (int) (size * getKeepFraction(level));
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.memory;
+
+/**
+ * Anything that keeps data in memory only to be faster and can give it back when the system
+ * runs low on memory
+ */
+public interface Trimmable {
+    /**
+     * @param level The ComponentCallbacks2 trim level, see TrimPolicy for what it usually means
+     */
+    void onTrimMemory(int level);
+}
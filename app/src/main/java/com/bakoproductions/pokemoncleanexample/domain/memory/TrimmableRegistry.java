@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.memory;
+
+import java.util.ArrayList;
+
+/**
+ * The memory caches of the app. The application hands every trim request of the system to all
+ * of them, so each one can shrink by its own policy.
+ */
+public class TrimmableRegistry {
+    private final ArrayList<Trimmable> trimmables = new ArrayList<>();
+
+    public synchronized void register(Trimmable trimmable) {
+        if (!trimmables.contains(trimmable)) {
+            trimmables.add(trimmable);
+        }
+    }
+
+    public synchronized void unregister(Trimmable trimmable) {
+        trimmables.remove(trimmable);
+    }
+
+    /**
+     * @param level The ComponentCallbacks2 trim level
+     */
+    public void onTrimMemory(int level) {
+        ArrayList<Trimmable> copy;
+        synchronized (this) {
+            // A cache may unregister itself while it is trimmed
+            copy = new ArrayList<>(trimmables);
+        }
+
+        for (int i=0;i<copy.size();i++) {
+            copy.get(i).onTrimMemory(level);
+        }
+    }
+}
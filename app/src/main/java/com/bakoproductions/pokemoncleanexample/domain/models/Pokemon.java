@@ -39,9 +39,13 @@ public class Pokemon implements Serializable {
         }
 
         if (url.isValid()) {
-            id = url.getLinkUrl()
-                    .replace("http://pokeapi.co/api/v2/pokemon/", "")
-                    .replace("/", "");
+            // The id is the last segment of the url, whatever its scheme is
+            // e.g. https://pokeapi.co/api/v2/pokemon/100/
+            String linkUrl = url.getLinkUrl();
+            int end = linkUrl.endsWith("/") ? linkUrl.length() - 1 : linkUrl.length();
+            int start = linkUrl.lastIndexOf('/', end - 1) + 1;
+
+            id = linkUrl.substring(start, end);
         }
 
         return id;
@@ -110,6 +110,81 @@ public class PokemonDetails implements Serializable {
         this.stats = stats;
     }
 
+    /**
+     * Unlike equals(...), which only compares the ids, this compares everything we show
+     * @param other Any details
+     * @return true if both details would look the same to the user
+     */
+    public boolean hasSameContent(PokemonDetails other) {
+        if (other == null || !id.equals(other.getId())
+                || weight != other.getWeight() || baseXP != other.getBaseXP()) {
+            return false;
+        }
+
+        if (types == null ? other.getTypes() != null : !types.equals(other.getTypes())) {
+            return false;
+        }
+
+        return sameAbilities(abilities, other.getAbilities()) && sameStats(stats, other.getStats());
+    }
+
+    private static boolean sameAbilities(ArrayList<PokemonAbility> a, ArrayList<PokemonAbility> b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+
+        if (a.size() != b.size()) {
+            return false;
+        }
+
+        for (int i=0;i<a.size();i++) {
+            PokemonAbility first = a.get(i);
+            PokemonAbility second = b.get(i);
+
+            if (first == null || second == null) {
+                if (first != second) {
+                    return false;
+                }
+            } else if (first.isHidden() != second.isHidden()
+                    || !sameString(first.getName(), second.getName())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameStats(ArrayList<PokemonStat> a, ArrayList<PokemonStat> b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+
+        if (a.size() != b.size()) {
+            return false;
+        }
+
+        for (int i=0;i<a.size();i++) {
+            PokemonStat first = a.get(i);
+            PokemonStat second = b.get(i);
+
+            if (first == null || second == null) {
+                if (first != second) {
+                    return false;
+                }
+            } else if (first.getBase() != second.getBase()
+                    || first.getEffort() != second.getEffort()
+                    || !sameString(first.getName(), second.getName())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameString(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -123,4 +198,9 @@ public class PokemonDetails implements Serializable {
             return false;
         }
     }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
 }
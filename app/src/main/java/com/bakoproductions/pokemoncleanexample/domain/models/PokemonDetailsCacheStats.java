@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.models;
+
+/**
+ * A snapshot of the counters of a details cache. The counters only grow, so the difference
+ * of two snapshots (see minus(...)) describes what happened between them.
+ *
+ * A hit is a request for details that was answered by the cache and a miss one that was not.
+ * A load is the fetch of details that were missing or stale, it takes the load time whether it
+ * succeeded or not.
+ */
+public final class PokemonDetailsCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTimeNanos;
+    private final long evictionCount;
+    private final int entryCount;
+    private final long sizeBytes;
+
+    public PokemonDetailsCacheStats(long hitCount, long missCount, long loadSuccessCount,
+                                    long loadFailureCount, long totalLoadTimeNanos,
+                                    long evictionCount, int entryCount, long sizeBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return The share of the requests that were answered by the cache, 1 if there were none
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public long getLoadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * @return How long a load took on average, 0 if there were none
+     */
+    public long getAverageLoadTimeNanos() {
+        long loads = getLoadCount();
+        return loads == 0 ? 0 : totalLoadTimeNanos / loads;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return How many details were cached when the snapshot was taken
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return The estimated memory the cached details took when the snapshot was taken
+     */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * @param earlier A snapshot of the same cache that was taken before this one
+     * @return What happened since the earlier snapshot. The entries and the bytes are the
+     *         ones of this snapshot.
+     */
+    public PokemonDetailsCacheStats minus(PokemonDetailsCacheStats earlier) {
+        return new PokemonDetailsCacheStats(
+                hitCount - earlier.hitCount,
+                missCount - earlier.missCount,
+                loadSuccessCount - earlier.loadSuccessCount,
+                loadFailureCount - earlier.loadFailureCount,
+                totalLoadTimeNanos - earlier.totalLoadTimeNanos,
+                evictionCount - earlier.evictionCount,
+                entryCount,
+                sizeBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "PokemonDetailsCacheStats{" +
+                "hits=" + hitCount +
+                ", misses=" + missCount +
+                ", loadSuccesses=" + loadSuccessCount +
+                ", loadFailures=" + loadFailureCount +
+                ", totalLoadTimeNanos=" + totalLoadTimeNanos +
+                ", evictions=" + evictionCount +
+                ", entries=" + entryCount +
+                ", bytes=" + sizeBytes +
+                '}';
+    }
+}
@@ -16,15 +16,36 @@
 
 package com.bakoproductions.pokemoncleanexample.domain.repository;
 
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
 import com.bakoproductions.pokemoncleanexample.domain.models.Link;
 
+import java.util.List;
+
 /**
  * Created by Michael on 15/4/2017.
  *
  * This data source needs to be implemented by the data layer
+ *
+ * Every request returns a handle that cancels it. After that its callback is never called. A
+ * request that is answered right away, without going to the network, returns null.
+ *
+ * Nothing is posted, the answer is given only to the callback of the request.
  */
 public interface PokemonDataSource {
-    void getPokemonList(int limit);
-    void getPokemonList(Link link);
-    void getPokemonDetails(String id);
+    Cancellable getPokemonList(int limit, PokemonListCallback callback);
+    Cancellable getPokemonList(Link link, PokemonListCallback callback);
+
+    // Gets ready to answer the next pages of the list, when the first one didn't have to be
+    // requested (e.g. it was cached). onFinished runs once it is ready, unless null was returned
+    // because there was nothing to do or the request was cancelled.
+    Cancellable preparePokemonList(Runnable onFinished);
+    Cancellable getPokemonDetails(String id, PokemonDetailsCallback callback);
+
+    // Fetches the details of every given pokemon straight into the cache, nothing is posted back.
+    // onFinished runs once, when every request is done or the prefetching was cancelled.
+    Cancellable prefetchPokemonDetails(List<String> ids, PokemonDetailsDataCache dataCache,
+                                       Runnable onFinished);
+
+    // Prepares the connection to the server before the first request is made
+    void warmUpConnection();
 }
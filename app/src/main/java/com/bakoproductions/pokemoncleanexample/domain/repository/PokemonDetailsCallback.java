@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.repository;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonDetailsError;
+
+/**
+ * Receives the answer of a single details request on the main thread. Unlike a bus only the one
+ * who made the request is called back, and never after the request was cancelled.
+ */
+public interface PokemonDetailsCallback {
+    void onPokemonDetailsReceived(PokemonDetails details);
+    void onPokemonDetailsError(PokemonDetailsError error);
+}
@@ -17,6 +17,7 @@
 package com.bakoproductions.pokemoncleanexample.domain.repository;
 
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetailsCacheStats;
 
 /**
  * Created by Michael on 17/4/2017.
@@ -30,7 +31,18 @@ public interface PokemonDetailsDataCache {
 
     PokemonDetails getPokemonDetails(String id);
 
+    // How long ago the cached details were fetched in milliseconds, or -1 if they are not cached
+    long getPokemonDetailsAge(String id);
+
     void removePokemonDetails(String id);
 
     void removeAll();
+
+    // Whoever asks the cache for the details of a pokemon records whether it was answered
+    void recordRequest(boolean hit);
+
+    // Whoever fetches the details that were missing or stale records how long it took
+    void recordLoad(long nanos, boolean success);
+
+    PokemonDetailsCacheStats getStats();
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.repository;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+/**
+ * These methods must be implemented by a caching mechanism of the list pages in the data layer.
+ *
+ * The first page is found by its limit and every next page by its link. Whoever gets a page is
+ * free to add to or remove from its list, the cache always hands out copies of the list. The
+ * pokemon in it are shared with the cache and must not be changed.
+ */
+public interface PokemonListDataCache {
+    void addFirstPage(int limit, PokemonList page);
+
+    void addPage(Link link, PokemonList page);
+
+    // The first page or null if it is not cached
+    PokemonList getFirstPage(int limit);
+
+    // The page of the link or null if it is not cached
+    PokemonList getPage(Link link);
+
+    void removeAll();
+}
@@ -18,6 +18,18 @@ package com.bakoproductions.pokemoncleanexample.presentation.components;
 
 import android.app.Application;
 
+import com.bakoproductions.pokemoncleanexample.data.repository.PokemonRepository;
+import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonDetailsDataStatic;
+import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonListDataStatic;
+import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonSnapshotStatic;
+import com.bakoproductions.pokemoncleanexample.domain.executors.BusProvider;
+import com.bakoproductions.pokemoncleanexample.domain.executors.UseCaseScheduler;
+import com.bakoproductions.pokemoncleanexample.domain.interactors.WarmUpConnectionUseCase;
+import com.bakoproductions.pokemoncleanexample.domain.memory.Trimmable;
+import com.bakoproductions.pokemoncleanexample.domain.memory.TrimmableRegistry;
+import com.bakoproductions.pokemoncleanexample.presentation.components.utils.AvatarLoader;
+import com.bakoproductions.pokemoncleanexample.presentation.components.utils.ChoreographerFrameScheduler;
+
 /**
  * Created by Michael on 15/4/2017.
  */
@@ -30,6 +42,9 @@ public class PokemonApplication extends Application {
      */
     private static PokemonApplication INSTANCE;
 
+    // The memory caches that shrink when the system runs low on memory
+    private final TrimmableRegistry trimmables = new TrimmableRegistry();
+
     public static PokemonApplication getInstance() {
         if (INSTANCE == null) {
             throw new IllegalStateException("Application is not created yet");
@@ -43,5 +58,49 @@ public class PokemonApplication extends Application {
         super.onCreate();
 
         INSTANCE = this;
+
+        // Opening the connection to the server before any activity is created, so that the
+        // handshakes are done by the time the list asks for its first page
+        UseCaseScheduler.get().schedule(new WarmUpConnectionUseCase(new PokemonRepository()));
+
+        // The results of the network reach the screens once per frame, all together
+        BusProvider.getUIDeliveryInstance().setScheduler(new ChoreographerFrameScheduler());
+
+        // The details and the list pages of the previous sessions are kept on the disk
+        trimmables.register(PokemonDetailsDataStatic.get());
+        trimmables.register(PokemonListDataStatic.get());
+
+        // Starts loading them in the background, from the snapshot of the last session when it is
+        // up to date, so the first frame of the list can show them. The snapshot is written again
+        // when we go to the background.
+        trimmables.register(PokemonSnapshotStatic.get());
+
+        trimmables.register(new Trimmable() {
+            @Override
+            public void onTrimMemory(int level) {
+                PokemonRepository.trimMemory(level);
+            }
+        });
+        trimmables.register(AvatarLoader.init(this));
+    }
+
+    public TrimmableRegistry getTrimmables() {
+        return trimmables;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        trimmables.onTrimMemory(level);
+    }
+
+    /*
+        The whole system is out of memory and even the background processes are gone,
+        so it is the same as the worst trim level
+     */
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        trimmables.onTrimMemory(TRIM_MEMORY_COMPLETE);
     }
 }
@@ -16,6 +16,8 @@
 
 package com.bakoproductions.pokemoncleanexample.presentation.components.utils;
 
+import android.app.ActivityManager;
+import android.content.Context;
 import android.widget.ImageView;
 
 import com.bakoproductions.pokemoncleanexample.R;
@@ -34,6 +36,26 @@ import com.squareup.picasso.Picasso;
  * The actual data that we need is the avatar url which is fetched from the Data Layer.
  */
 public class AvatarLoader {
+    // The same share of the memory of the app that Picasso gives to its own cache
+    private static final int MEMORY_CACHE_SHARE = 7;
+
+    /**
+     * Makes Picasso keep the avatars in a cache that we can trim. It has to be called before
+     * the first avatar is loaded.
+     * @param context The application context
+     * @return The memory cache of the avatars
+     */
+    public static AvatarMemoryCache init(Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int maxBytes = activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_SHARE;
+
+        AvatarMemoryCache cache = new AvatarMemoryCache(maxBytes);
+        Picasso.setSingletonInstance(new Picasso.Builder(context).memoryCache(cache).build());
+
+        return cache;
+    }
+
     /**
      * Just a simple static method to put an image from the web to the ImageView
      * @param imageView The view that the image is added
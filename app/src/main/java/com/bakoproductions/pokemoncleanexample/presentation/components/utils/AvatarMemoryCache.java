@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.presentation.components.utils;
+
+import android.graphics.Bitmap;
+
+import com.bakoproductions.pokemoncleanexample.domain.memory.TrimPolicy;
+import com.bakoproductions.pokemoncleanexample.domain.memory.Trimmable;
+import com.squareup.picasso.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The memory cache of the avatars, bounded by the bytes of the bitmaps.
+ *
+ * It does what the LruCache of Picasso does, but Picasso can only clear its cache as a whole.
+ * This one shrinks by the TrimPolicy when the system runs low on memory.
+ */
+public class AvatarMemoryCache implements Cache, Trimmable {
+    // Picasso separates the uri from the transformations of the request in the keys
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final int maxBytes;
+
+    // Access ordered, so the eldest entry is always the least recently used one
+    private final LinkedHashMap<String, Bitmap> bitmaps = new LinkedHashMap<>(16, 0.75f, true);
+    private int bytes;
+
+    public AvatarMemoryCache(int maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The cache bound must be positive");
+        }
+
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized Bitmap get(String key) {
+        return bitmaps.get(key);
+    }
+
+    @Override
+    public synchronized void set(String key, Bitmap bitmap) {
+        if (key == null || bitmap == null) {
+            return;
+        }
+
+        Bitmap previous = bitmaps.put(key, bitmap);
+        bytes += bitmap.getByteCount();
+        if (previous != null) {
+            bytes -= previous.getByteCount();
+        }
+
+        trimToSize(maxBytes);
+    }
+
+    @Override
+    public synchronized int size() {
+        return bytes;
+    }
+
+    @Override
+    public int maxSize() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized void clear() {
+        bitmaps.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized void clearKeyUri(String uri) {
+        Iterator<Map.Entry<String, Bitmap>> iterator = bitmaps.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, Bitmap> entry = iterator.next();
+            String key = entry.getKey();
+
+            if (key.startsWith(uri)
+                    && key.length() > uri.length()
+                    && key.charAt(uri.length()) == KEY_SEPARATOR) {
+                bytes -= entry.getValue().getByteCount();
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onTrimMemory(int level) {
+        trimToSize(TrimPolicy.getTrimmedSize(bytes, level));
+    }
+
+    private void trimToSize(int size) {
+        Iterator<Bitmap> iterator = bitmaps.values().iterator();
+
+        while (bytes > size && iterator.hasNext()) {
+            bytes -= iterator.next().getByteCount();
+            iterator.remove();
+        }
+    }
+}
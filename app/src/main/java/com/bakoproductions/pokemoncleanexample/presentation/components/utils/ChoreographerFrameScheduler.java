@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.presentation.components.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.FrameScheduler;
+
+/**
+ * Runs the callbacks when the Choreographer starts the next frame, before anything is measured
+ * or drawn, so whatever they change is in that frame.
+ *
+ * There is no Choreographer before Jelly Bean, there the callbacks run a frame later on the
+ * main thread.
+ */
+public class ChoreographerFrameScheduler implements FrameScheduler {
+    private static final long FRAME_MILLIS = 16;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void scheduleFrame(final Runnable callback) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            handler.postDelayed(callback, FRAME_MILLIS);
+            return;
+        }
+
+        // The Choreographer belongs to the thread that asks for it, so we ask on the main thread
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            postFrameCallback(callback);
+        } else {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    postFrameCallback(callback);
+                }
+            });
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static void postFrameCallback(final Runnable callback) {
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                callback.run();
+            }
+        });
+    }
+}
@@ -18,10 +18,15 @@ package com.bakoproductions.pokemoncleanexample.presentation.presenters;
 
 import com.bakoproductions.pokemoncleanexample.data.repository.sharedPreferences.SharedPrefsRepository;
 import com.bakoproductions.pokemoncleanexample.domain.executors.BusProvider;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.executors.EventHandlers;
+import com.bakoproductions.pokemoncleanexample.domain.executors.UseCaseScheduler;
 import com.bakoproductions.pokemoncleanexample.domain.interactors.BaseUseCase;
 import com.bakoproductions.pokemoncleanexample.domain.interactors.PreferencesUseCase;
 import com.bakoproductions.pokemoncleanexample.presentation.Navigator;
 
+import java.util.ArrayList;
+
 /**
  * Created by Michael on 15/4/2017.
  *
@@ -32,6 +37,12 @@ public abstract class BasePresenter {
     private PreferencesUseCase prefsUseCase;
     private Navigator navigator;
 
+    // The use cases this presenter has started and are not finished yet, so they can be
+    // cancelled when it is destroyed. They finish on any thread, so it is guarded by itself.
+    private final ArrayList<Cancellable> useCases = new ArrayList<>();
+
+    private EventHandlers subscriber;
+
     public BasePresenter() {
         prefsUseCase = new PreferencesUseCase(SharedPrefsRepository.getInstance());
     }
@@ -44,9 +55,54 @@ public abstract class BasePresenter {
         return navigator;
     }
 
-    // Helps at tests to mock the use case invocation
+    // Helps at tests to mock the use case invocation. The use case starts when the
+    // UseCaseScheduler decides that its turn has come, which is usually right away.
     public void executeUseCase(BaseUseCase useCase) {
-        useCase.execute();
+        UseCaseFinished onFinished = new UseCaseFinished();
+        Cancellable handle = UseCaseScheduler.get().schedule(useCase, onFinished);
+
+        synchronized (useCases) {
+            // A use case that is answered from the memory is already finished
+            if (!onFinished.finished) {
+                onFinished.handle = handle;
+                useCases.add(handle);
+            }
+        }
+    }
+
+    /**
+     * Cancels every use case this presenter has started. Whatever they still wait for from the
+     * network is cancelled too, as long as no other screen waits for the same data.
+     */
+    public void cancelUseCases() {
+        ArrayList<Cancellable> running;
+
+        synchronized (useCases) {
+            running = new ArrayList<>(useCases);
+            useCases.clear();
+        }
+
+        for (int i=0;i<running.size();i++) {
+            running.get(i).cancel();
+        }
+    }
+
+    // Forgets the use case once it is finished, so a long lived screen doesn't keep every use
+    // case it has ever started
+    private class UseCaseFinished implements Runnable {
+        // Guarded by useCases
+        private boolean finished;
+        private Cancellable handle;
+
+        @Override
+        public void run() {
+            synchronized (useCases) {
+                finished = true;
+                if (handle != null) {
+                    useCases.remove(handle);
+                }
+            }
+        }
     }
 
     // =================== PREFERENCES ======================
@@ -62,13 +118,22 @@ public abstract class BasePresenter {
 
     // =================== SUBSCRIBERS ======================
 
+    /**
+     * @return The handlers of the events the use cases of this presenter post on the UI Bus
+     */
+    protected abstract EventHandlers setSubscriber();
+
     /*
         Need these methods to register and unregister the presenters in order
         to listen to events that happen on the UI Bus
      */
     public void register() {
+        if (subscriber == null) {
+            subscriber = setSubscriber();
+        }
+
         try {
-            BusProvider.getUIBusInstance().register(this);
+            BusProvider.getUIBusInstance().register(subscriber);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -76,7 +141,7 @@ public abstract class BasePresenter {
 
     public void unregister() {
         try {
-            BusProvider.getUIBusInstance().unregister(this);
+            BusProvider.getUIBusInstance().unregister(subscriber);
         } catch (Exception e) {
             e.printStackTrace();
         }
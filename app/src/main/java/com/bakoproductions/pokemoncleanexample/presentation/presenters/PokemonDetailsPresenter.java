@@ -19,6 +19,8 @@ package com.bakoproductions.pokemoncleanexample.presentation.presenters;
 import com.bakoproductions.pokemoncleanexample.R;
 import com.bakoproductions.pokemoncleanexample.data.repository.PokemonRepository;
 import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonDetailsDataStatic;
+import com.bakoproductions.pokemoncleanexample.domain.executors.EventHandlers;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Subscribe;
 import com.bakoproductions.pokemoncleanexample.domain.interactors.GetPokemonDetailsUseCase;
 import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
@@ -26,13 +28,17 @@ import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonDetailsError;
 import com.bakoproductions.pokemoncleanexample.presentation.screens.PokemonDetailsScreen;
-import com.squareup.otto.Subscribe;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Michael on 17/4/2017.
  */
 
 public class PokemonDetailsPresenter extends BasePresenter {
+    // Older cached details are shown right away but they are also requested again
+    private static final long DETAILS_MAX_AGE = TimeUnit.DAYS.toMillis(7);
+
     private PokemonDetailsScreen screen;
 
     /**
@@ -65,6 +71,9 @@ public class PokemonDetailsPresenter extends BasePresenter {
 
     public void destroy() {
         unregister();
+
+        // Stop downloading the details if the user left before they arrived
+        cancelUseCases();
     }
 
     public void onWeightInteracted() {
@@ -95,10 +104,17 @@ public class PokemonDetailsPresenter extends BasePresenter {
         // we will receive them instantly in the onPokemonDetailsReceived(...) method
         executeUseCase(new GetPokemonDetailsUseCase(
                 pokemon.getId(),
+                DETAILS_MAX_AGE,
                 new PokemonRepository(),
                 PokemonDetailsDataStatic.get()));
     }
 
+    @Override
+    protected EventHandlers setSubscriber() {
+        // Generated from the @Subscribe methods below
+        return PokemonDetailsPresenter_EventHandlers.create(this);
+    }
+
     @Subscribe
     public void onPokemonDetailsReceived(PokemonDetails details) {
         // Hiding the loading progress
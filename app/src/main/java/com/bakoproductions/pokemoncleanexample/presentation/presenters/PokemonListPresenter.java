@@ -22,13 +22,21 @@ import com.bakoproductions.pokemoncleanexample.R;
 import com.bakoproductions.pokemoncleanexample.data.repository.PokemonRepository;
 import com.bakoproductions.pokemoncleanexample.data.repository.sharedPreferences.Prefs;
 import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonDetailsDataStatic;
+import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonListDataStatic;
+import com.bakoproductions.pokemoncleanexample.data.repositoryCached.PokemonSnapshotStatic;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.executors.BatchDelivered;
+import com.bakoproductions.pokemoncleanexample.domain.executors.EventHandlers;
+import com.bakoproductions.pokemoncleanexample.domain.executors.Subscribe;
 import com.bakoproductions.pokemoncleanexample.domain.interactors.GetPokemonListUseCase;
+import com.bakoproductions.pokemoncleanexample.domain.interactors.PrefetchPokemonDetailsUseCase;
 import com.bakoproductions.pokemoncleanexample.domain.models.Link;
 import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
 import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
 import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonListError;
 import com.bakoproductions.pokemoncleanexample.presentation.screens.PokemonListScreen;
-import com.squareup.otto.Subscribe;
+
+import java.util.ArrayList;
 
 /**
  * Created by Michael on 14/4/2017.
@@ -42,6 +50,13 @@ public class PokemonListPresenter extends BasePresenter {
     private Link nextPageLink;
     private boolean loadingNewPage;
 
+    private boolean firstPageReceived;
+    private boolean showingLoading;
+    private Cancellable warmStart;
+
+    // The pokemon of the pages of the batch that is being delivered, added to the list together
+    private ArrayList<Pokemon> pendingPokemon;
+
     /**
      * We usually keep the constructor simple.
      * @param screen The interface that helps this presenter
@@ -73,12 +88,18 @@ public class PokemonListPresenter extends BasePresenter {
     }
 
     public void destroy() {
-        // Unregister subscribers. If we forget this then every @Subscribe method
+        // Unregister subscribers. If we forget this then every event handler
         // will be called more than one times per Use Case
         unregister();
 
-        // Removing cashed data that we don't need anymore
-        PokemonDetailsDataStatic.get().removeAll();
+        if (warmStart != null) {
+            warmStart.cancel();
+        }
+
+        // Nobody is going to show the pages or the details we are still loading
+        cancelUseCases();
+
+        // The cached details are kept, the next session will need them too
     }
 
     /**
@@ -123,11 +144,28 @@ public class PokemonListPresenter extends BasePresenter {
     }
 
     void loadPokemonData() {
-        // We need to show the loading progress before request the data
-        screen.showLoading();
+        // The pages of the last session are being loaded when the app starts. We wait for them
+        // before we ask pokeapi, it takes a lot less. If they are already loaded the cached page
+        // replaces the loading before anything is drawn.
+        showLoading();
+        warmStart = PokemonSnapshotStatic.get().whenLoaded(new Runnable() {
+            @Override
+            public void run() {
+                loadFirstPage();
+            }
+        });
+    }
 
+    void loadFirstPage() {
         // Requesting the data, while providing how many pokemon we want to fetch first (20)
-        executeUseCase(new GetPokemonListUseCase(20, new PokemonRepository()));
+        executeUseCase(new GetPokemonListUseCase(
+                20, new PokemonRepository(), PokemonListDataStatic.get()));
+
+        // A cached page is already on the screen by now, otherwise we show the loading progress
+        // while the data are requested
+        if (!firstPageReceived) {
+            showLoading();
+        }
     }
 
     void loadMorePokemonData() {
@@ -137,7 +175,21 @@ public class PokemonListPresenter extends BasePresenter {
         loadingNewPage = true;
 
         // Requesting the next page of data
-        executeUseCase(new GetPokemonListUseCase(nextPageLink, new PokemonRepository()));
+        executeUseCase(new GetPokemonListUseCase(
+                nextPageLink, new PokemonRepository(), PokemonListDataStatic.get()));
+    }
+
+    void prefetchPokemonDetails(PokemonList pokemonList) {
+        executeUseCase(new PrefetchPokemonDetailsUseCase(
+                pokemonList,
+                new PokemonRepository(),
+                PokemonDetailsDataStatic.get()));
+    }
+
+    @Override
+    protected EventHandlers setSubscriber() {
+        // Generated from the @Subscribe methods below
+        return PokemonListPresenter_EventHandlers.create(this);
     }
 
     @Subscribe
@@ -146,22 +198,42 @@ public class PokemonListPresenter extends BasePresenter {
           Both GetPokemonListUseCase invocations end here, either we requested the first page
           or every next page
          */
-        if (totalPokemon == 0) {
-            // First time hide the screen loading
-            screen.hideLoading();
+        if (!firstPageReceived) {
+            // First time hide the screen loading, if it was shown at all
+            firstPageReceived = true;
+            hideLoading();
         } else {
             // Every next time we remove the bottom list loading progress
             loadingNewPage = false;
             screen.hideListLoading();
         }
 
-        // Adding the fetched data to the RecyclerView
-        screen.addToPokemonList(pokemonList.getPokemonList());
+        // The fetched data are added to the RecyclerView with the rest of the pages that
+        // arrived in the same frame
+        if (pendingPokemon == null) {
+            pendingPokemon = new ArrayList<>();
+        }
+        pendingPokemon.addAll(pokemonList.getPokemonList());
 
         // We need these variables for infinite scrolling
         lastPageSize = pokemonList.getPageSize();
         totalPokemon += lastPageSize;
         nextPageLink = pokemonList.getNextLink();
+
+        // The user is going to open some of these, so we fetch their details in the background
+        prefetchPokemonDetails(pokemonList);
+    }
+
+    /**
+     * Every page that arrived in the same frame has been received, so we add all their pokemon
+     * to the RecyclerView at once
+     */
+    @BatchDelivered
+    public void onPokemonListBatchDelivered() {
+        if (pendingPokemon != null) {
+            screen.addToPokemonList(pendingPokemon);
+            pendingPokemon = null;
+        }
     }
 
     @Subscribe
@@ -169,8 +241,8 @@ public class PokemonListPresenter extends BasePresenter {
         // Both GetPokemonListUseCase invocations end here
 
         // Hiding the appropriate loading progress
-        if (totalPokemon == 0) {
-            screen.hideLoading();
+        if (!firstPageReceived) {
+            hideLoading();
             screen.showNoInternetPanel();
         } else {
             loadingNewPage = false;
@@ -184,4 +256,18 @@ public class PokemonListPresenter extends BasePresenter {
             }
         }
     }
+
+    private void showLoading() {
+        if (!showingLoading) {
+            showingLoading = true;
+            screen.showLoading();
+        }
+    }
+
+    private void hideLoading() {
+        if (showingLoading) {
+            showingLoading = false;
+            screen.hideLoading();
+        }
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities;
+
+/**
+ * Builds pokeapi like payloads for the tests. The details payload has the same shape and
+ * roughly the same size as a real one, most of it being moves, game indices and sprites.
+ */
+public class PokemonJsonFixtures {
+    private static final String API = "https://pokeapi.co/api/v2/";
+
+    private static final String[] STATS = {
+            "speed", "special-defense", "special-attack", "defense", "attack", "hp"
+    };
+
+    public static String pokemonDetails(int id, int moves) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"forms\":[").append(resource("bulbasaur", "pokemon-form/" + id)).append("],");
+
+        json.append("\"abilities\":[")
+                .append("{\"slot\":3,\"is_hidden\":true,\"ability\":")
+                .append(resource("chlorophyll", "ability/34")).append("},")
+                .append("{\"slot\":1,\"is_hidden\":false,\"ability\":")
+                .append(resource("overgrow", "ability/65")).append("}],");
+
+        json.append("\"stats\":[");
+        for (int i=0;i<STATS.length;i++) {
+            if (i != 0) {
+                json.append(',');
+            }
+            json.append("{\"stat\":").append(resource(STATS[i], "stat/" + (6 - i)))
+                    .append(",\"effort\":").append(i == 2 ? 1 : 0)
+                    .append(",\"base_stat\":").append(45 + i * 4).append('}');
+        }
+        json.append("],");
+
+        json.append("\"name\":\"bulbasaur\",\"weight\":69,");
+
+        json.append("\"moves\":[");
+        for (int i=0;i<moves;i++) {
+            if (i != 0) {
+                json.append(',');
+            }
+            json.append("{\"version_group_details\":[");
+            for (int j=0;j<6;j++) {
+                if (j != 0) {
+                    json.append(',');
+                }
+                json.append("{\"move_learn_method\":").append(resource("level-up", "move-learn-method/1"))
+                        .append(",\"level_learned_at\":").append(j * 3)
+                        .append(",\"version_group\":").append(resource("red-blue", "version-group/" + (j + 1)))
+                        .append('}');
+            }
+            json.append("],\"move\":").append(resource("move-" + i, "move/" + i)).append('}');
+        }
+        json.append("],");
+
+        json.append("\"height\":7,\"is_default\":true,\"id\":").append(id).append(',');
+        json.append("\"sprites\":{");
+        String[] sprites = {"back_female", "back_shiny_female", "back_default", "front_female",
+                "front_shiny_female", "back_shiny", "front_default", "front_shiny"};
+        for (int i=0;i<sprites.length;i++) {
+            if (i != 0) {
+                json.append(',');
+            }
+            json.append('"').append(sprites[i]).append("\":");
+            if (sprites[i].contains("female")) {
+                json.append("null");
+            } else {
+                json.append("\"https://raw.githubusercontent.com/PokeAPI/sprites/master/sprites/pokemon/")
+                        .append(sprites[i]).append('/').append(id).append(".png\"");
+            }
+        }
+        json.append("},");
+
+        json.append("\"game_indices\":[");
+        for (int i=0;i<20;i++) {
+            if (i != 0) {
+                json.append(',');
+            }
+            json.append("{\"version\":").append(resource("version-" + i, "version/" + i))
+                    .append(",\"game_index\":").append(153).append('}');
+        }
+        json.append("],");
+
+        json.append("\"held_items\":[],\"location_area_encounters\":\"/api/v2/pokemon/").append(id)
+                .append("/encounters\",\"order\":1,\"base_experience\":64,");
+        json.append("\"species\":").append(resource("bulbasaur", "pokemon-species/" + id)).append(',');
+        json.append("\"types\":[")
+                .append("{\"slot\":2,\"type\":").append(resource("poison", "type/4")).append("},")
+                .append("{\"slot\":1,\"type\":").append(resource("grass", "type/12")).append("}]");
+        json.append('}');
+
+        return json.toString();
+    }
+
+    public static String pokemonList(int offset, int limit, int count) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"count\":").append(count).append(',');
+
+        if (offset + limit < count) {
+            json.append("\"next\":\"http://pokeapi.co/api/v2/pokemon/?limit=").append(limit)
+                    .append("&offset=").append(offset + limit).append("\",");
+        } else {
+            json.append("\"next\":null,");
+        }
+
+        json.append("\"previous\":null,\"results\":[");
+        int end = Math.min(count, offset + limit);
+        for (int i=offset;i<end;i++) {
+            if (i != offset) {
+                json.append(',');
+            }
+            json.append("{\"url\":\"http://pokeapi.co/api/v2/pokemon/").append(i + 1)
+                    .append("/\",\"name\":\"pokemon-").append(i + 1).append("\"}");
+        }
+        json.append("]}");
+
+        return json.toString();
+    }
+
+    private static String resource(String name, String path) {
+        return "{\"url\":\"" + API + path + "/\",\"name\":\"" + name + "\"}";
+    }
+}
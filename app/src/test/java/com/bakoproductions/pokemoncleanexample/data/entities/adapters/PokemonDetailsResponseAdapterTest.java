@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.adapters;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.PokemonJsonFixtures;
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonDetailsMapper;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the streaming adapter reads the same data as the reflective Gson path and
+ * compares the cost of both.
+ */
+public class PokemonDetailsResponseAdapterTest {
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    private final Gson reflective = new Gson();
+    private final Gson streaming = new GsonBuilder()
+            .registerTypeAdapterFactory(PokemonDetailsResponseAdapter.factory())
+            .create();
+
+    @Test
+    public void testSameDetailsAsReflective() {
+        String json = PokemonJsonFixtures.pokemonDetails(1, 78);
+
+        PokemonDetails expected = new PokemonDetailsMapper().transform(
+                "1", reflective.fromJson(json, PokemonDetailsResponse.class));
+        PokemonDetails actual = new PokemonDetailsMapper().transform(
+                "1", streaming.fromJson(json, PokemonDetailsResponse.class));
+
+        assertEquals(expected.getWeight(), actual.getWeight());
+        assertEquals(expected.getBaseXP(), actual.getBaseXP());
+        assertEquals(expected.getTypes(), actual.getTypes());
+
+        assertEquals(expected.getAbilities().size(), actual.getAbilities().size());
+        for (int i=0;i<expected.getAbilities().size();i++) {
+            assertEquals(expected.getAbilities().get(i).getName(), actual.getAbilities().get(i).getName());
+            assertEquals(expected.getAbilities().get(i).isHidden(), actual.getAbilities().get(i).isHidden());
+        }
+
+        assertEquals(expected.getStats().size(), actual.getStats().size());
+        for (int i=0;i<expected.getStats().size();i++) {
+            assertEquals(expected.getStats().get(i).getName(), actual.getStats().get(i).getName());
+            assertEquals(expected.getStats().get(i).getBase(), actual.getStats().get(i).getBase());
+            assertEquals(expected.getStats().get(i).getEffort(), actual.getStats().get(i).getEffort());
+        }
+    }
+
+    @Test
+    public void testNullFields() {
+        PokemonDetailsResponse response = streaming.fromJson(
+                "{\"abilities\":null,\"weight\":null,\"stats\":[{\"stat\":null,\"base_stat\":5}]}",
+                PokemonDetailsResponse.class);
+
+        assertNull(response.getAbilities());
+        assertNull(response.getWeight());
+        assertEquals(1, response.getStats().size());
+        assertEquals(Integer.valueOf(5), response.getStats().get(0).getBaseStat());
+    }
+
+    @Test
+    public void testWritesLikeReflective() {
+        PokemonDetailsResponse response = streaming.fromJson(
+                PokemonJsonFixtures.pokemonDetails(1, 78), PokemonDetailsResponse.class);
+
+        String written = streaming.toJson(response);
+
+        assertEquals(reflective.toJson(response), written);
+        PokemonDetails expected = new PokemonDetailsMapper().transform("1", response);
+        PokemonDetails actual = new PokemonDetailsMapper().transform(
+                "1", streaming.fromJson(written, PokemonDetailsResponse.class));
+        assertEquals(expected.getWeight(), actual.getWeight());
+        assertEquals(expected.getTypes(), actual.getTypes());
+        assertEquals(expected.getStats().size(), actual.getStats().size());
+    }
+
+    @Test
+    public void benchmarkAgainstReflective() {
+        String json = PokemonJsonFixtures.pokemonDetails(1, 78);
+
+        Result reflectiveResult = measure(reflective, json);
+        Result streamingResult = measure(streaming, json);
+
+        System.out.println("Details payload: " + json.length() + " chars");
+        System.out.println("Reflective: " + reflectiveResult);
+        System.out.println("Streaming:  " + streamingResult);
+
+        if (reflectiveResult.bytesPerParse > 0 && streamingResult.bytesPerParse > 0) {
+            assertTrue(streamingResult.bytesPerParse < reflectiveResult.bytesPerParse);
+        }
+    }
+
+    private Result measure(Gson gson, String json) {
+        for (int i=0;i<WARM_UP_ROUNDS;i++) {
+            gson.fromJson(json, PokemonDetailsResponse.class);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i=0;i<MEASURED_ROUNDS;i++) {
+            gson.fromJson(json, PokemonDetailsResponse.class);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        return new Result(elapsed / MEASURED_ROUNDS, allocatedBefore < 0 ? -1 : allocated / MEASURED_ROUNDS);
+    }
+
+    /*
+        Only the HotSpot like JVMs can report the allocated bytes of a thread
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static class Result {
+        final long nanosPerParse;
+        final long bytesPerParse;
+
+        Result(long nanosPerParse, long bytesPerParse) {
+            this.nanosPerParse = nanosPerParse;
+            this.bytesPerParse = bytesPerParse;
+        }
+
+        @Override
+        public String toString() {
+            return (nanosPerParse / 1000) + " us/parse, "
+                    + (bytesPerParse >= 0 ? bytesPerParse + " bytes/parse" : "allocations n/a");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.converters;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.PokemonJsonFixtures;
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonDetailsMapper;
+import com.bakoproductions.pokemoncleanexample.data.entities.mappers.PokemonListMapper;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonListResponse;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the fused readers build the same models as the GSON entities and the mappers,
+ * which stay the reference implementation.
+ */
+public class PokemonDomainConverterTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testSameDetailsAsMapper() throws IOException {
+        String json = PokemonJsonFixtures.pokemonDetails(25, 78);
+
+        PokemonDetails expected = new PokemonDetailsMapper().transform(
+                "25", gson.fromJson(json, PokemonDetailsResponse.class));
+        PokemonDetails actual = new PokemonDetailsJsonReader().read(new JsonReader(new StringReader(json)));
+        actual.setId("25");
+
+        assertSameDetails(expected, actual);
+    }
+
+    @Test
+    public void testDetailsWithMissingParts() throws IOException {
+        String json = "{\"weight\":60,\"base_experience\":64,\"types\":[{\"slot\":1,\"type\":null}]," +
+                "\"stats\":[{\"stat\":null,\"base_stat\":5,\"effort\":1}]}";
+
+        PokemonDetails expected = new PokemonDetailsMapper().transform(
+                "7", gson.fromJson(json, PokemonDetailsResponse.class));
+        PokemonDetails actual = new PokemonDetailsJsonReader().read(new JsonReader(new StringReader(json)));
+        actual.setId("7");
+
+        assertSameDetails(expected, actual);
+    }
+
+    @Test
+    public void testSameListAsMapper() throws IOException {
+        String json = PokemonJsonFixtures.pokemonList(20, 20, 811);
+
+        PokemonList expected = new PokemonListMapper().transform(gson.fromJson(json, PokemonListResponse.class));
+        PokemonList actual = new PokemonListJsonReader().read(new JsonReader(new StringReader(json)));
+
+        assertSameList(expected, actual);
+    }
+
+    @Test
+    public void testLastListPage() throws IOException {
+        String json = "{\"count\":2,\"next\":null,\"previous\":null,\"results\":" +
+                "[{\"name\":\"bulbasaur\",\"url\":\"http://pokeapi.co/api/v2/pokemon/1/\"}]}";
+
+        PokemonList expected = new PokemonListMapper().transform(gson.fromJson(json, PokemonListResponse.class));
+        PokemonList actual = new PokemonListJsonReader().read(new JsonReader(new StringReader(json)));
+
+        assertSameList(expected, actual);
+        assertEquals("1", actual.getPokemonList().get(0).getId());
+    }
+
+    private void assertSameDetails(PokemonDetails expected, PokemonDetails actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getWeight(), actual.getWeight());
+        assertEquals(expected.getBaseXP(), actual.getBaseXP());
+        assertEquals(expected.getTypes(), actual.getTypes());
+
+        assertEquals(expected.getAbilities().size(), actual.getAbilities().size());
+        for (int i=0;i<expected.getAbilities().size();i++) {
+            assertEquals(expected.getAbilities().get(i).getName(), actual.getAbilities().get(i).getName());
+            assertEquals(expected.getAbilities().get(i).isHidden(), actual.getAbilities().get(i).isHidden());
+        }
+
+        assertEquals(expected.getStats().size(), actual.getStats().size());
+        for (int i=0;i<expected.getStats().size();i++) {
+            assertEquals(expected.getStats().get(i).getName(), actual.getStats().get(i).getName());
+            assertEquals(expected.getStats().get(i).getBase(), actual.getStats().get(i).getBase());
+            assertEquals(expected.getStats().get(i).getEffort(), actual.getStats().get(i).getEffort());
+        }
+    }
+
+    private void assertSameList(PokemonList expected, PokemonList actual) {
+        assertEquals(expected.getPokemonList().size(), actual.getPokemonList().size());
+        for (int i=0;i<expected.getPokemonList().size();i++) {
+            assertEquals(expected.getPokemonList().get(i).getName(), actual.getPokemonList().get(i).getName());
+            assertEquals(expected.getPokemonList().get(i).getUrl().getLinkUrl(),
+                    actual.getPokemonList().get(i).getUrl().getLinkUrl());
+        }
+
+        if (expected.getNextLink() == null) {
+            assertNull(actual.getNextLink());
+        } else {
+            assertEquals(expected.getNextLink().getLinkUrl(), actual.getNextLink().getLinkUrl());
+        }
+    }
+}
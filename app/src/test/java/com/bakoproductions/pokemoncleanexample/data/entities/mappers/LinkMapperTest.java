@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.entities.mappers;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LinkMapperTest {
+    @Test
+    public void testApiLinkBecomesHttps() {
+        Link link = new LinkMapper().transform("http://pokeapi.co/api/v2/pokemon/?limit=20&offset=20");
+
+        assertEquals("https://pokeapi.co/api/v2/pokemon/?limit=20&offset=20", link.getLinkUrl());
+    }
+
+    @Test
+    public void testHttpsLinkIsUntouched() {
+        Link link = new LinkMapper().transform("https://pokeapi.co/api/v2/pokemon/1/");
+
+        assertEquals("https://pokeapi.co/api/v2/pokemon/1/", link.getLinkUrl());
+    }
+
+    @Test
+    public void testOtherHostIsUntouched() {
+        Link link = new LinkMapper().transform("http://img.pokemondb.net/artwork/pikachu.jpg");
+
+        assertEquals("http://img.pokemondb.net/artwork/pikachu.jpg", link.getLinkUrl());
+    }
+
+    @Test
+    public void testNullLink() {
+        Link link = new LinkMapper().transform(null);
+
+        assertFalse(link.isValid());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.entities.mappers;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.PokemonJsonFixtures;
+import com.bakoproductions.pokemoncleanexample.data.entities.converters.PokemonDetailsJsonReader;
+import com.bakoproductions.pokemoncleanexample.data.entities.responses.PokemonDetailsResponse;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the mappers and the fused reader share the names of all the details, and reports
+ * how much heap that saves on a full pokedex
+ */
+public class PokemonNamePoolTest {
+    // A bit more than the whole pokedex
+    private static final int FULL_DEX = 1000;
+
+    // Rough size of a string on the heap, header, fields and char array included
+    private static final int STRING_BYTES = 40;
+
+    @Test
+    public void testIntern() {
+        PokemonNamePool pool = new PokemonNamePool(10);
+        String first = pool.intern(new String("grass"));
+
+        assertSame(first, pool.intern(new String("grass")));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testBounded() {
+        PokemonNamePool pool = new PokemonNamePool(2);
+        pool.intern("hp");
+        pool.intern("speed");
+
+        String attack = new String("attack");
+        assertSame(attack, pool.intern(attack));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testMapperAndReaderShareNames() throws IOException {
+        String json = PokemonJsonFixtures.pokemonDetails(1, 0);
+
+        PokemonDetails mapped = new PokemonDetailsMapper().transform(
+                "1", new Gson().fromJson(json, PokemonDetailsResponse.class));
+        PokemonDetails read = new PokemonDetailsJsonReader().read(new JsonReader(new StringReader(json)));
+
+        assertSame(mapped.getTypes().get(0), read.getTypes().get(0));
+        assertSame(mapped.getAbilities().get(0).getName(), read.getAbilities().get(0).getName());
+        assertSame(mapped.getStats().get(0).getName(), read.getStats().get(0).getName());
+    }
+
+    @Test
+    public void reportFullDexSaving() throws IOException {
+        ArrayList<PokemonDetails> dex = new ArrayList<>();
+        for (int i=1;i<=FULL_DEX;i++) {
+            String json = PokemonJsonFixtures.pokemonDetails(i, 0);
+            dex.add(new PokemonDetailsJsonReader().read(new JsonReader(new StringReader(json))));
+        }
+
+        // Without the pool every name of every pokemon would be its own instance
+        IdentityHashMap<String, Boolean> instances = new IdentityHashMap<>();
+        int references = 0;
+        long referencedBytes = 0;
+
+        for (int i=0;i<dex.size();i++) {
+            ArrayList<String> names = namesOf(dex.get(i));
+            for (int j=0;j<names.size();j++) {
+                references++;
+                referencedBytes += STRING_BYTES + 2 * names.get(j).length();
+                instances.put(names.get(j), Boolean.TRUE);
+            }
+        }
+
+        long pooledBytes = 0;
+        for (String name : instances.keySet()) {
+            pooledBytes += STRING_BYTES + 2 * name.length();
+        }
+
+        System.out.println(String.format(
+                "Names of %d details: %d strings, %d bytes without the pool, %d strings, %d bytes with it",
+                FULL_DEX, references, referencedBytes, instances.size(), pooledBytes));
+
+        assertEquals(10, instances.size());
+    }
+
+    private static ArrayList<String> namesOf(PokemonDetails details) {
+        ArrayList<String> names = new ArrayList<>(details.getTypes());
+        for (int i=0;i<details.getAbilities().size();i++) {
+            names.add(details.getAbilities().get(i).getName());
+        }
+        for (int i=0;i<details.getStats().size();i++) {
+            names.add(details.getStats().get(i).getName());
+        }
+
+        return names;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class InFlightRequestsTest {
+    @Test
+    public void testFirstCallerMakesTheRequest() {
+        InFlightRequests<Object> requests = new InFlightRequests<>();
+
+        assertTrue(requests.join("1"));
+        assertTrue(requests.isInFlight("1"));
+        assertEquals(0, requests.getCoalescedRequests());
+    }
+
+    @Test
+    public void testSameKeyIsCoalesced() {
+        InFlightRequests<Object> requests = new InFlightRequests<>();
+
+        assertTrue(requests.join("1"));
+        assertFalse(requests.join("1"));
+        assertFalse(requests.join("1"));
+        assertTrue(requests.join("2"));
+
+        assertEquals(2, requests.getCoalescedRequests());
+        assertEquals(3, requests.complete("1"));
+        assertEquals(1, requests.complete("2"));
+    }
+
+    @Test
+    public void testCompletedKeyIsRequestedAgain() {
+        InFlightRequests<Object> requests = new InFlightRequests<>();
+
+        assertTrue(requests.join("1"));
+        requests.complete("1");
+
+        assertFalse(requests.isInFlight("1"));
+        assertTrue(requests.join("1"));
+        assertEquals(0, requests.complete("unknown"));
+    }
+
+    @Test
+    public void testRequestIsCancelledWhenNobodyWaits() {
+        InFlightRequests<Object> requests = new InFlightRequests<>();
+        FakeRequest request = new FakeRequest();
+
+        requests.join("1");
+        Cancellable first = requests.interest("1");
+        requests.attach("1", request);
+        requests.join("1");
+        Cancellable second = requests.interest("1");
+
+        first.cancel();
+        first.cancel();
+        assertFalse(request.cancelled);
+        assertTrue(requests.isInFlight("1"));
+
+        second.cancel();
+        assertTrue(request.cancelled);
+        assertFalse(requests.isInFlight("1"));
+    }
+
+    @Test
+    public void testLateCancelDoesNotTouchANewerRequest() {
+        InFlightRequests<Object> requests = new InFlightRequests<>();
+        FakeRequest newer = new FakeRequest();
+
+        requests.join("1");
+        Cancellable stale = requests.interest("1");
+        requests.complete("1");
+
+        requests.join("1");
+        requests.attach("1", newer);
+
+        stale.cancel();
+        assertFalse(newer.cancelled);
+        assertEquals(1, requests.complete("1"));
+    }
+
+    @Test
+    public void testResultReachesOnlyItsListeners() {
+        InFlightRequests<String> requests = new InFlightRequests<>();
+
+        requests.join("1");
+        requests.interest("1", "first");
+        requests.join("2");
+        requests.interest("2", "other");
+        requests.join("1");
+        requests.interest("1", "joined");
+
+        assertEquals(Arrays.asList("first", "joined"), requests.completeForListeners("1"));
+        assertEquals(Collections.singletonList("other"), requests.completeForListeners("2"));
+        assertTrue(requests.completeForListeners("1").isEmpty());
+    }
+
+    @Test
+    public void testCancelledListenerIsNotCalled() {
+        InFlightRequests<String> requests = new InFlightRequests<>();
+
+        requests.join("1");
+        Cancellable first = requests.interest("1", "first");
+        requests.join("1");
+        requests.interest("1", "joined");
+        // The prefetching waits without a listener
+        requests.join("1");
+        requests.interest("1");
+
+        first.cancel();
+
+        assertEquals(Collections.singletonList("joined"), requests.completeForListeners("1"));
+    }
+
+    @Test
+    public void testJoinedListenerGetsTheResult() {
+        InFlightRequests<String> requests = new InFlightRequests<>();
+
+        InFlightRequests.Joined first = requests.joinWithInterest("1", "first");
+        InFlightRequests.Joined joined = requests.joinWithInterest("1", "joined");
+        assertTrue(first.isFirst());
+        assertFalse(joined.isFirst());
+
+        // The request completes right after the second caller joined it
+        assertEquals(Arrays.asList("first", "joined"), requests.completeForListeners("1"));
+
+        // A caller that comes after the request completed makes a new one
+        InFlightRequests.Joined late = requests.joinWithInterest("1", "late");
+        assertTrue(late.isFirst());
+        late.getInterest().cancel();
+        assertFalse(requests.isInFlight("1"));
+    }
+
+    @Test
+    public void testRequestCompletingWhileCallersJoinLosesNobody() throws Exception {
+        final InFlightRequests<Integer> requests = new InFlightRequests<>();
+        final int callers = 20000;
+        final Set<Integer> delivered = Collections.synchronizedSet(new HashSet<Integer>());
+        final AtomicBoolean joining = new AtomicBoolean(true);
+
+        // Completes the request over and over while the callers join it
+        Thread completer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (joining.get()) {
+                    delivered.addAll(requests.completeForListeners("1"));
+                }
+            }
+        });
+        completer.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i=0;i<callers;i++) {
+            final int caller = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    requests.joinWithInterest("1", caller);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        joining.set(false);
+        completer.join();
+        delivered.addAll(requests.completeForListeners("1"));
+
+        // Every caller either made the request or joined one that delivered to it
+        assertEquals(callers, delivered.size());
+    }
+
+    private static class FakeRequest implements Cancellable {
+        boolean cancelled;
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repository;
+
+import com.bakoproductions.pokemoncleanexample.data.entities.PokemonJsonFixtures;
+import com.bakoproductions.pokemoncleanexample.data.entities.converters.PokemonListJsonReader;
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the pages served from the index look exactly like the pages of the api
+ */
+public class PokemonIndexTest {
+    private static final String LIST_URL = "https://pokeapi.co/api/v2/pokemon/";
+    private static final int COUNT = 811;
+
+    private PokemonIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        String json = PokemonJsonFixtures.pokemonList(0, COUNT, COUNT);
+        PokemonList all = new PokemonListJsonReader().read(new JsonReader(new StringReader(json)));
+
+        index = new PokemonIndex(LIST_URL, all.getPokemonList());
+    }
+
+    @Test
+    public void testFirstPage() {
+        PokemonList page = index.page(0, 20);
+
+        assertEquals(COUNT, index.size());
+        assertEquals(20, page.getPageSize());
+        assertEquals("pokemon-1", page.getPokemonList().get(0).getName());
+        assertEquals("1", page.getPokemonList().get(0).getId());
+        assertEquals(LIST_URL + "20/", page.getPokemonList().get(19).getUrl().getLinkUrl());
+        assertEquals(LIST_URL + "?offset=20&limit=20", page.getNextLink().getLinkUrl());
+    }
+
+    @Test
+    public void testFollowingTheLinks() {
+        PokemonList page = index.page(0, 20);
+        int total = page.getPageSize();
+
+        while (page.getNextLink().getLinkUrl() != null) {
+            page = index.page(page.getNextLink());
+            total += page.getPageSize();
+        }
+
+        assertEquals(COUNT, total);
+        assertEquals(COUNT % 20, page.getPageSize());
+        assertEquals("pokemon-" + COUNT, page.getPokemonList().get(page.getPageSize() - 1).getName());
+    }
+
+    @Test
+    public void testApiLink() {
+        // The links of the api have the parameters the other way around
+        Link link = new Link();
+        link.setLinkUrl(LIST_URL + "?limit=20&offset=40");
+
+        PokemonList page = index.page(link);
+
+        assertEquals(20, page.getPageSize());
+        assertEquals("41", page.getPokemonList().get(0).getId());
+    }
+
+    @Test
+    public void testUnknownLink() {
+        Link link = new Link();
+        link.setLinkUrl("https://pokeapi.co/api/v2/ability/?offset=20&limit=20");
+        assertNull(index.page(link));
+
+        link.setLinkUrl(LIST_URL);
+        assertNull(index.page(link));
+
+        assertNull(index.page(new Link()));
+    }
+
+    @Test
+    public void testPokemonWithoutIdIsLeftOut() {
+        Link url = new Link();
+        url.setLinkUrl(LIST_URL + "bulbasaur/");
+        Pokemon pokemon = new Pokemon();
+        pokemon.setName("bulbasaur");
+        pokemon.setUrl(url);
+
+        PokemonList list = index.page(0, 2);
+        list.getPokemonList().add(1, pokemon);
+
+        assertEquals(2, new PokemonIndex(LIST_URL, list.getPokemonList()).size());
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.executors.Cancellable;
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the snapshot brings the pages and the details back into new caches, that it never
+ * replaces newer entries and that whoever waits for it is called back once it is restored
+ */
+public class CacheSnapshotterTest {
+    private static final String API = "https://pokeapi.co/api/v2/pokemon/";
+
+    // Runs the callbacks and the disk work of the caches right away
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "snapshot.bin");
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSnapshotRestoresTheCaches() throws Exception {
+        PokemonListPageCache pages = newPages();
+        PersistentPokemonDetailsCache details = newDetails();
+        pages.addFirstPage(20, page(20));
+        details.addPokemonDetails(bulbasaur("1"));
+
+        CacheSnapshotter snapshotter = newSnapshotter(pages, details);
+        snapshotter.start();
+        snapshotter.snapshot();
+        flush();
+
+        PokemonListPageCache restoredPages = newPages();
+        PersistentPokemonDetailsCache restoredDetails = newDetails();
+        newSnapshotter(restoredPages, restoredDetails).start();
+        flush();
+
+        assertEquals(20, restoredPages.getFirstPage(20).getPageSize());
+        assertEquals("pokemon-1", restoredPages.getFirstPage(20).getPokemonList().get(0).getName());
+        assertEquals(69, restoredDetails.getPokemonDetails("1").getWeight());
+    }
+
+    @Test
+    public void testNewerEntriesAreKept() throws Exception {
+        PokemonListPageCache pages = newPages();
+        PersistentPokemonDetailsCache details = newDetails();
+        pages.addFirstPage(20, page(20));
+        details.addPokemonDetails(bulbasaur("1"));
+
+        CacheSnapshotter snapshotter = newSnapshotter(pages, details);
+        snapshotter.start();
+        snapshotter.snapshot();
+        flush();
+
+        Thread.sleep(5);
+
+        // Fetched in the new session before the snapshot was restored
+        PokemonListPageCache restoredPages = newPages();
+        PersistentPokemonDetailsCache restoredDetails = newDetails();
+        restoredPages.addFirstPage(20, page(5));
+        PokemonDetails heavier = bulbasaur("1");
+        heavier.setWeight(100);
+        restoredDetails.addPokemonDetails(heavier);
+
+        newSnapshotter(restoredPages, restoredDetails).start();
+        flush();
+
+        assertEquals(5, restoredPages.getFirstPage(20).getPageSize());
+        assertEquals(100, restoredDetails.getPokemonDetails("1").getWeight());
+    }
+
+    @Test
+    public void testUpToDateSnapshotIsRestoredInsteadOfTheCacheFiles() throws Exception {
+        File pagesFile = new File(folder.getRoot(), "pages.bin");
+        PokemonListPageCache pages = newPages(pagesFile);
+        pages.addFirstPage(20, page(20));
+
+        CacheSnapshotter snapshotter = newSnapshotter(pages, newDetails());
+        snapshotter.start();
+        snapshotter.snapshot();
+        flush();
+
+        // Only the file of the cache has this page, but the snapshot is the newer file
+        pages.addPage(link(API + "?offset=20&limit=20"), page(20));
+        assertTrue(pagesFile.setLastModified(file.lastModified() - 10000));
+
+        PokemonListPageCache restored = newPages(pagesFile);
+        newSnapshotter(restored, newDetails()).start();
+        flush();
+
+        assertNotNull(restored.getFirstPage(20));
+        assertNull(restored.getPage(link(API + "?offset=20&limit=20")));
+    }
+
+    @Test
+    public void testOutdatedSnapshotFallsBackToTheCacheFiles() throws Exception {
+        File pagesFile = new File(folder.getRoot(), "pages.bin");
+        PokemonListPageCache pages = newPages(pagesFile);
+        pages.addFirstPage(20, page(20));
+
+        CacheSnapshotter snapshotter = newSnapshotter(pages, newDetails());
+        snapshotter.start();
+        snapshotter.snapshot();
+        flush();
+
+        // The process died after this page was cached and before the next snapshot
+        pages.addPage(link(API + "?offset=20&limit=20"), page(20));
+        assertTrue(file.setLastModified(pagesFile.lastModified() - 10000));
+
+        PokemonListPageCache restored = newPages(pagesFile);
+        CacheSnapshotter restoring = newSnapshotter(restored, newDetails());
+        restoring.start();
+
+        AtomicInteger calls = new AtomicInteger();
+        restoring.whenLoaded(counting(calls));
+        flush();
+
+        assertEquals(1, calls.get());
+        assertNotNull(restored.getFirstPage(20));
+        assertNotNull(restored.getPage(link(API + "?offset=20&limit=20")));
+    }
+
+    @Test
+    public void testWhenLoadedWaitsForTheSnapshot() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    busy.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        CacheSnapshotter snapshotter = newSnapshotter(newPages(), newDetails());
+        snapshotter.start();
+
+        AtomicInteger calls = new AtomicInteger();
+        snapshotter.whenLoaded(counting(calls));
+        Cancellable cancelled = snapshotter.whenLoaded(counting(calls));
+        cancelled.cancel();
+
+        assertEquals(0, calls.get());
+
+        busy.countDown();
+        flush();
+
+        assertEquals(1, calls.get());
+
+        // Once it is restored we are called right away
+        snapshotter.whenLoaded(counting(calls));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testWhenLoadedWithoutSnapshot() {
+        CacheSnapshotter snapshotter = new CacheSnapshotter(
+                null, newDetails(), newPages(), executor, DIRECT, 1, TimeUnit.DAYS);
+        snapshotter.start();
+
+        AtomicInteger calls = new AtomicInteger();
+        snapshotter.whenLoaded(counting(calls));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testWrittenOnlyWhenChanged() throws Exception {
+        PokemonListPageCache pages = newPages();
+        CacheSnapshotter snapshotter = newSnapshotter(pages, newDetails());
+        snapshotter.start();
+
+        pages.addFirstPage(20, page(20));
+        snapshotter.snapshot();
+        flush();
+        assertTrue(file.delete());
+
+        snapshotter.snapshot();
+        flush();
+        assertFalse(file.exists());
+
+        pages.addPage(link(API + "?offset=20&limit=20"), page(20));
+        snapshotter.snapshot();
+        flush();
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void testDamagedSnapshotIsDropped() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+
+        PokemonListPageCache pages = newPages();
+        CacheSnapshotter snapshotter = newSnapshotter(pages, newDetails());
+        snapshotter.start();
+        flush();
+
+        AtomicInteger calls = new AtomicInteger();
+        snapshotter.whenLoaded(counting(calls));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, pages.size());
+        assertFalse(file.exists());
+    }
+
+    private CacheSnapshotter newSnapshotter(PokemonListPageCache pages,
+                                            PersistentPokemonDetailsCache details) {
+        return new CacheSnapshotter(file, details, pages, executor, DIRECT, 1, TimeUnit.DAYS);
+    }
+
+    /*
+        Waits for everything that was given to the executor so far
+     */
+    private void flush() throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    private static PokemonListPageCache newPages() {
+        return newPages(null);
+    }
+
+    private static PokemonListPageCache newPages(File file) {
+        return new PokemonListPageCache(file, 10, 1, TimeUnit.DAYS, DIRECT);
+    }
+
+    private static PersistentPokemonDetailsCache newDetails() {
+        return new PersistentPokemonDetailsCache(
+                null,
+                new PokemonDetailsLruCache(100, Long.MAX_VALUE),
+                1,
+                TimeUnit.DAYS,
+                DIRECT);
+    }
+
+    private static Runnable counting(final AtomicInteger calls) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                calls.incrementAndGet();
+            }
+        };
+    }
+
+    private static PokemonList page(int count) {
+        PokemonList page = new PokemonList();
+        for (int i=0;i<count;i++) {
+            Pokemon pokemon = new Pokemon();
+            pokemon.setName("pokemon-" + (i + 1));
+            pokemon.setUrl(link(API + (i + 1) + "/"));
+            page.getPokemonList().add(pokemon);
+        }
+        page.setNextLink(new Link());
+
+        return page;
+    }
+
+    private static Link link(String url) {
+        Link link = new Link();
+        link.setLinkUrl(url);
+        return link;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the compact details decode to the same content they were encoded from, and
+ * measures the heap they retain compared to the model
+ */
+public class CompactPokemonDetailsTest {
+    private static final int MEASURED_DETAILS = 20000;
+
+    @Test
+    public void testRoundTrip() {
+        PokemonNameCodes names = new PokemonNameCodes();
+        PokemonDetails details = bulbasaur("1");
+        CompactPokemonDetails compact = CompactPokemonDetails.encode(details, names);
+
+        assertNotNull(compact);
+        assertTrue(details.hasSameContent(compact.decode(names)));
+
+        // Every read is a new copy
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(10, Long.MAX_VALUE);
+        cache.addPokemonDetails(details);
+        assertNotSame(cache.getPokemonDetails("1"), cache.getPokemonDetails("1"));
+        assertTrue(details.hasSameContent(cache.getPokemonDetails("1")));
+    }
+
+    @Test
+    public void testNullsSurvive() {
+        PokemonNameCodes names = new PokemonNameCodes();
+
+        PokemonDetails details = new PokemonDetails("7");
+        assertTrue(details.hasSameContent(CompactPokemonDetails.encode(details, names).decode(names)));
+
+        PokemonStat unnamed = new PokemonStat();
+        unnamed.setBase(10);
+        ArrayList<PokemonStat> stats = new ArrayList<>();
+        stats.add(null);
+        stats.add(unnamed);
+        details.setStats(stats);
+
+        ArrayList<PokemonAbility> abilities = new ArrayList<>();
+        abilities.add(null);
+        abilities.add(new PokemonAbility());
+        details.setAbilities(abilities);
+
+        ArrayList<String> types = new ArrayList<>();
+        types.add(null);
+        details.setTypes(types);
+
+        PokemonDetails decoded = CompactPokemonDetails.encode(details, names).decode(names);
+        assertTrue(details.hasSameContent(decoded));
+        assertNull(decoded.getStats().get(0));
+        assertNull(decoded.getStats().get(1).getName());
+    }
+
+    @Test
+    public void testOutOfRangeIsNotEncoded() {
+        PokemonDetails details = bulbasaur("1");
+        details.getStats().get(0).setBase(70000);
+        assertNull(CompactPokemonDetails.encode(details, new PokemonNameCodes()));
+
+        details = bulbasaur("1");
+        details.getStats().get(0).setEffort(-1);
+        assertNull(CompactPokemonDetails.encode(details, new PokemonNameCodes()));
+
+        // The cache keeps them as they are
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(10, Long.MAX_VALUE);
+        cache.addPokemonDetails(details);
+        assertSame(details, cache.getPokemonDetails("1"));
+    }
+
+    @Test
+    public void testNamesAreShared() {
+        PokemonNameCodes names = new PokemonNameCodes();
+        PokemonDetails first = CompactPokemonDetails.encode(bulbasaur("1"), names).decode(names);
+        PokemonDetails second = CompactPokemonDetails.encode(bulbasaur("2"), names).decode(names);
+
+        assertSame(first.getTypes().get(0), second.getTypes().get(0));
+        assertSame(first.getAbilities().get(0).getName(), second.getAbilities().get(0).getName());
+        assertSame(first.getStats().get(0).getName(), second.getStats().get(0).getName());
+    }
+
+    @Test
+    public void testNameCodesAreBounded() {
+        PokemonNameCodes names = new PokemonNameCodes();
+
+        int code = 0;
+        for (int i=0;code != PokemonNameCodes.NONE;i++) {
+            code = names.encode("ability-" + i);
+        }
+
+        assertEquals(PokemonNameCodes.MAX_CODES, names.size());
+        assertEquals("hp", names.decode(names.encode("hp")));
+    }
+
+    @Test
+    public void testRetainedHeap() {
+        PokemonNameCodes names = new PokemonNameCodes();
+
+        long modelEstimate = PokemonDetailsLruCache.sizeOfModel(bulbasaur("1"));
+        long compactEstimate = CompactPokemonDetails.encode(bulbasaur("1"), names).sizeOf();
+
+        Object[] models = new Object[MEASURED_DETAILS];
+        long before = usedMemory();
+        for (int i=0;i<models.length;i++) {
+            models[i] = bulbasaur(String.valueOf(i));
+        }
+        long modelMeasured = (usedMemory() - before) / models.length;
+        assertNotNull(models[models.length - 1]);
+        models = null;
+
+        Object[] compacts = new Object[MEASURED_DETAILS];
+        before = usedMemory();
+        for (int i=0;i<compacts.length;i++) {
+            compacts[i] = CompactPokemonDetails.encode(bulbasaur(String.valueOf(i)), names);
+        }
+        long compactMeasured = (usedMemory() - before) / compacts.length;
+        assertNotNull(compacts[compacts.length - 1]);
+
+        System.out.println(String.format(
+                "Retained heap per details: model %d bytes (estimated %d), compact %d bytes (estimated %d)",
+                modelMeasured, modelEstimate, compactMeasured, compactEstimate));
+
+        assertTrue(compactEstimate * 3 < modelEstimate);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i=0;i<3;i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the details survive a new cache instance, as they would survive the death of the
+ * process, and that a damaged file never loses more than the damaged records
+ */
+public class PersistentPokemonDetailsCacheTest {
+    // Runs the disk work right away, so every test sees its effects
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "details.log");
+    }
+
+    @Test
+    public void testDetailsSurviveANewInstance() {
+        newCache(TimeUnit.DAYS.toMillis(1)).addPokemonDetails(bulbasaur("1"));
+
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        cache.load();
+
+        assertTrue(cache.hasPokemonDetails("1"));
+        assertSameDetails(bulbasaur("1"), cache.getPokemonDetails("1"));
+    }
+
+    @Test
+    public void testNullPartsAreKept() {
+        PokemonDetails details = new PokemonDetails("2");
+        ArrayList<PokemonAbility> abilities = new ArrayList<>();
+        abilities.add(null);
+        details.setAbilities(abilities);
+        newCache(TimeUnit.DAYS.toMillis(1)).addPokemonDetails(details);
+
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        cache.load();
+
+        PokemonDetails read = cache.getPokemonDetails("2");
+        assertNull(read.getTypes());
+        assertNull(read.getStats());
+        assertEquals(1, read.getAbilities().size());
+        assertNull(read.getAbilities().get(0));
+    }
+
+    @Test
+    public void testExpiredDetailsAreMissing() throws InterruptedException {
+        PersistentPokemonDetailsCache cache = newCache(50);
+        cache.addPokemonDetails(bulbasaur("1"));
+        assertTrue(cache.hasPokemonDetails("1"));
+
+        Thread.sleep(80);
+        assertFalse(cache.hasPokemonDetails("1"));
+        assertNull(cache.getPokemonDetails("1"));
+
+        PersistentPokemonDetailsCache reloaded = newCache(50);
+        reloaded.load();
+        assertFalse(reloaded.hasPokemonDetails("1"));
+    }
+
+    @Test
+    public void testRemovalIsPersisted() {
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        cache.addPokemonDetails(bulbasaur("1"));
+        cache.addPokemonDetails(bulbasaur("2"));
+        cache.removePokemonDetails("1");
+
+        PersistentPokemonDetailsCache reloaded = newCache(TimeUnit.DAYS.toMillis(1));
+        reloaded.load();
+        assertFalse(reloaded.hasPokemonDetails("1"));
+        assertTrue(reloaded.hasPokemonDetails("2"));
+
+        reloaded.removeAll();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCutRecordIsDropped() throws IOException {
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        cache.addPokemonDetails(bulbasaur("1"));
+        cache.addPokemonDetails(bulbasaur("2"));
+
+        // As if the process died while it was writing the second record
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 5);
+        raf.close();
+
+        PersistentPokemonDetailsCache reloaded = newCache(TimeUnit.DAYS.toMillis(1));
+        reloaded.load();
+        assertTrue(reloaded.hasPokemonDetails("1"));
+        assertFalse(reloaded.hasPokemonDetails("2"));
+
+        // The file has been repaired, so the next records are readable again
+        reloaded.addPokemonDetails(bulbasaur("3"));
+        PersistentPokemonDetailsCache again = newCache(TimeUnit.DAYS.toMillis(1));
+        again.load();
+        assertTrue(again.hasPokemonDetails("1"));
+        assertTrue(again.hasPokemonDetails("3"));
+    }
+
+    @Test
+    public void testGarbageIsCompacted() {
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        for (int i=0;i<300;i++) {
+            cache.addPokemonDetails(bulbasaur(String.valueOf(i % 10)));
+        }
+        long before = file.length();
+
+        PersistentPokemonDetailsCache reloaded = newCache(TimeUnit.DAYS.toMillis(1));
+        reloaded.load();
+
+        assertTrue(file.length() * 20 < before);
+        for (int i=0;i<10;i++) {
+            assertTrue(reloaded.hasPokemonDetails(String.valueOf(i)));
+        }
+    }
+
+    @Test
+    public void testRecordsWrittenBeforeAreCounted() throws IOException {
+        PokemonDetailsLog log = new PokemonDetailsLog(file);
+        for (int i=0;i<5;i++) {
+            log.append(bulbasaur("1"), i);
+        }
+
+        // A new session that appends before it ever reads the file
+        PokemonDetailsLog next = new PokemonDetailsLog(file);
+        next.append(bulbasaur("2"), 0);
+        assertEquals(6, next.getRecordCount());
+
+        next.read();
+        assertEquals(6, next.getRecordCount());
+    }
+
+    @Test
+    public void testDetailsWithoutIdAreSkipped() throws IOException {
+        PersistentPokemonDetailsCache cache = newCache(TimeUnit.DAYS.toMillis(1));
+        cache.addPokemonDetails(bulbasaur(null));
+        cache.removePokemonDetails(null);
+        cache.removePokemonDetails("");
+        cache.addPokemonDetails(bulbasaur("1"));
+
+        PokemonDetailsLog log = new PokemonDetailsLog(file);
+        log.append(bulbasaur(null), 0);
+        log.appendRemoval(null);
+        log.appendRemoval("");
+        assertEquals(1, log.getRecordCount());
+
+        PersistentPokemonDetailsCache reloaded = newCache(TimeUnit.DAYS.toMillis(1));
+        reloaded.load();
+        assertTrue(reloaded.hasPokemonDetails("1"));
+    }
+
+    @Test
+    public void testMissingDirectoryKeepsMemoryOnly() {
+        PersistentPokemonDetailsCache cache = new PersistentPokemonDetailsCache(
+                null, new PokemonDetailsLruCache(10, Long.MAX_VALUE), 1, TimeUnit.DAYS, DIRECT);
+        cache.load();
+        cache.addPokemonDetails(bulbasaur("1"));
+
+        assertTrue(cache.hasPokemonDetails("1"));
+    }
+
+    private PersistentPokemonDetailsCache newCache(long ttlMillis) {
+        return new PersistentPokemonDetailsCache(
+                file,
+                new PokemonDetailsLruCache(100, Long.MAX_VALUE),
+                ttlMillis,
+                TimeUnit.MILLISECONDS,
+                DIRECT);
+    }
+
+    private static void assertSameDetails(PokemonDetails expected, PokemonDetails actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getWeight(), actual.getWeight());
+        assertEquals(expected.getBaseXP(), actual.getBaseXP());
+        assertEquals(expected.getTypes(), actual.getTypes());
+        assertEquals(expected.getAbilities().get(0).getName(), actual.getAbilities().get(0).getName());
+        assertEquals(expected.getAbilities().get(0).isHidden(), actual.getAbilities().get(0).isHidden());
+        assertEquals(expected.getStats().get(0).getName(), actual.getStats().get(0).getName());
+        assertEquals(expected.getStats().get(0).getBase(), actual.getStats().get(0).getBase());
+        assertEquals(expected.getStats().get(0).getEffort(), actual.getStats().get(0).getEffort());
+    }
+}
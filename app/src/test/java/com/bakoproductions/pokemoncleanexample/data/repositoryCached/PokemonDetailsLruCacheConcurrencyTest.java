@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
+import static org.junit.Assert.*;
+
+/**
+ * Hammers the cache from many threads at once and checks that it stays within its bounds
+ */
+public class PokemonDetailsLruCacheConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 20000;
+    private static final int IDS = 500;
+
+    @Test
+    public void testBoundsUnderContention() throws Exception {
+        final int maxEntries = 100;
+        final long entryBytes = PokemonDetailsLruCache.sizeOf(bulbasaur("100"));
+        final PokemonDetailsLruCache cache = new PokemonDetailsLruCache(maxEntries, Long.MAX_VALUE, 4);
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) throws Exception {
+                Random random = new Random(thread);
+
+                for (int i=0;i<OPERATIONS;i++) {
+                    // Three digit ids, so every entry has the same size
+                    String id = String.valueOf(100 + random.nextInt(IDS));
+
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            cache.removePokemonDetails(id);
+                            break;
+                        case 1:
+                            cache.addPokemonDetails(bulbasaur(id));
+                            break;
+                        default:
+                            PokemonDetails details = cache.getPokemonDetails(id);
+                            assertTrue(details == null || details.getId().equals(id));
+                            break;
+                    }
+                }
+            }
+        });
+
+        // Every segment rounds its share of the bound up
+        assertTrue(cache.size() <= maxEntries + 4);
+        assertEquals(cache.size() * entryBytes, cache.getSizeBytes());
+    }
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(final Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ArrayList<Future<Void>> futures = new ArrayList<>();
+
+        for (int i=0;i<THREADS;i++) {
+            final int thread = i;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    task.run(thread);
+                    return null;
+                }
+            }));
+        }
+
+        // Rethrows the failure of any thread
+        for (int i=0;i<futures.size();i++) {
+            futures.get(i).get(30, TimeUnit.SECONDS);
+        }
+
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetailsCacheStats;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bounds and the eviction order of the cache, and measures the cost of a lookup
+ * as the cache grows
+ */
+public class PokemonDetailsLruCacheTest {
+    private static final int LOOKUPS = 200000;
+    private static final int LIST_LOOKUPS = 500;
+
+    // Spreads the looked up ids over the whole cache
+    private static final int STRIDE = 7919;
+
+    @Test
+    public void testLookup() {
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(10, Long.MAX_VALUE);
+        cache.addPokemonDetails(bulbasaur("1"));
+
+        assertTrue(cache.hasPokemonDetails("1"));
+        assertEquals("1", cache.getPokemonDetails("1").getId());
+        assertFalse(cache.hasPokemonDetails("2"));
+        assertNull(cache.getPokemonDetails("2"));
+
+        cache.removePokemonDetails("1");
+        cache.removePokemonDetails("2");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(3, Long.MAX_VALUE);
+        cache.addPokemonDetails(bulbasaur("1"));
+        cache.addPokemonDetails(bulbasaur("2"));
+        cache.addPokemonDetails(bulbasaur("3"));
+
+        // Using 1 makes 2 the least recently used
+        cache.getPokemonDetails("1");
+        cache.addPokemonDetails(bulbasaur("4"));
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.hasPokemonDetails("1"));
+        assertFalse(cache.hasPokemonDetails("2"));
+        assertTrue(cache.hasPokemonDetails("3"));
+        assertTrue(cache.hasPokemonDetails("4"));
+    }
+
+    @Test
+    public void testByteBound() {
+        long entryBytes = PokemonDetailsLruCache.sizeOf(bulbasaur("1"));
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(100, entryBytes * 2);
+
+        cache.addPokemonDetails(bulbasaur("1"));
+        cache.addPokemonDetails(bulbasaur("2"));
+        cache.addPokemonDetails(bulbasaur("3"));
+
+        assertEquals(2, cache.size());
+        assertEquals(entryBytes * 2, cache.getSizeBytes());
+        assertFalse(cache.hasPokemonDetails("1"));
+    }
+
+    @Test
+    public void testReplacingKeepsTheSize() {
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(10, Long.MAX_VALUE);
+        cache.addPokemonDetails(bulbasaur("1"));
+        long bytes = cache.getSizeBytes();
+
+        cache.addPokemonDetails(bulbasaur("1"));
+
+        assertEquals(1, cache.size());
+        assertEquals(bytes, cache.getSizeBytes());
+    }
+
+    @Test
+    public void testTrimToFraction() {
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(10, Long.MAX_VALUE);
+        for (int i=1;i<=8;i++) {
+            cache.addPokemonDetails(bulbasaur(String.valueOf(i)));
+        }
+
+        // Using 1 makes it the most recently used
+        cache.getPokemonDetails("1");
+        cache.trimToFraction(0.25f);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.hasPokemonDetails("1"));
+        assertTrue(cache.hasPokemonDetails("8"));
+        assertEquals(2 * PokemonDetailsLruCache.sizeOf(bulbasaur("1")), cache.getSizeBytes());
+
+        cache.trimToFraction(0f);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    public void testStats() {
+        long entryBytes = PokemonDetailsLruCache.sizeOf(bulbasaur("1"));
+        PokemonDetailsLruCache cache = new PokemonDetailsLruCache(2, Long.MAX_VALUE);
+        PokemonDetailsCacheStats before = cache.getStats();
+
+        cache.addPokemonDetails(bulbasaur("1"));
+        cache.addPokemonDetails(bulbasaur("2"));
+        cache.addPokemonDetails(bulbasaur("3"));
+        cache.recordRequest(true);
+        cache.recordRequest(true);
+        cache.recordRequest(false);
+        cache.recordLoad(300, true);
+        cache.recordLoad(100, false);
+
+        PokemonDetailsCacheStats stats = cache.getStats().minus(before);
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2.0 / 3, stats.getHitRate(), 0.0001);
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        assertEquals(200, stats.getAverageLoadTimeNanos());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getEntryCount());
+        assertEquals(2 * entryBytes, stats.getSizeBytes());
+
+        // Removing is not evicting
+        cache.removeAll();
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertEquals(0, cache.getStats().getEntryCount());
+    }
+
+    @Test
+    public void testLookupCostIsFlat() {
+        int[] sizes = {100, 1000, 10000};
+
+        for (int size : sizes) {
+            PokemonDetailsLruCache cache = new PokemonDetailsLruCache(size, Long.MAX_VALUE);
+            ArrayList<PokemonDetails> list = new ArrayList<>();
+            for (int i=0;i<size;i++) {
+                cache.addPokemonDetails(bulbasaur(String.valueOf(i)));
+                list.add(bulbasaur(String.valueOf(i)));
+            }
+
+            // Warming up the JIT before we measure
+            measureCache(cache, size);
+            measureList(list, size);
+
+            long cacheNanos = measureCache(cache, size);
+            long listNanos = measureList(list, size);
+
+            System.out.println(String.format(
+                    "Details lookup with %5d entries: lru %4d ns, list scan %7d ns",
+                    size, cacheNanos, listNanos));
+        }
+    }
+
+    /*
+        The hit path of the use case: hasPokemonDetails(...) then getPokemonDetails(...)
+     */
+    private long measureCache(PokemonDetailsLruCache cache, int size) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i=0;i<LOOKUPS;i++) {
+            String id = String.valueOf((long) i * STRIDE % size);
+            if (cache.hasPokemonDetails(id) && cache.getPokemonDetails(id) != null) {
+                found++;
+            }
+        }
+        long nanos = (System.nanoTime() - start) / LOOKUPS;
+
+        assertEquals(LOOKUPS, found);
+        return nanos;
+    }
+
+    /*
+        The same path as the list based cache did it, two scans per hit
+     */
+    private long measureList(ArrayList<PokemonDetails> list, int size) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i=0;i<LIST_LOOKUPS;i++) {
+            PokemonDetails probe = new PokemonDetails(String.valueOf((long) i * STRIDE % size));
+            if (list.contains(probe) && list.get(list.indexOf(new PokemonDetails(probe.getId()))) != null) {
+                found++;
+            }
+        }
+        long nanos = (System.nanoTime() - start) / LIST_LOOKUPS;
+
+        assertEquals(LIST_LOOKUPS, found);
+        return nanos;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.repositoryCached;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.Link;
+import com.bakoproductions.pokemoncleanexample.domain.models.Pokemon;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the pages are found by their limit or link, that nobody can change a cached page
+ * and that the pages survive a new cache instance
+ */
+public class PokemonListPageCacheTest {
+    private static final String API = "https://pokeapi.co/api/v2/pokemon/";
+
+    // Runs the disk work right away, so every test sees its effects
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "pages.bin");
+    }
+
+    @Test
+    public void testPagesByLimitAndLink() {
+        PokemonListPageCache cache = newCache(null, 10);
+        cache.addFirstPage(20, page(0, 20));
+        cache.addPage(link(20, 20), page(20, 20));
+
+        assertSamePage(page(0, 20), cache.getFirstPage(20));
+        assertSamePage(page(20, 20), cache.getPage(link(20, 20)));
+        assertNull(cache.getFirstPage(10));
+        assertNull(cache.getPage(link(40, 20)));
+        assertNull(cache.getPage(null));
+    }
+
+    @Test
+    public void testCachedPagesCannotBeChanged() {
+        PokemonListPageCache cache = newCache(null, 10);
+        PokemonList page = page(0, 20);
+        cache.addFirstPage(20, page);
+
+        // The adapter of the list keeps adding rows to the first page it was given
+        page.getPokemonList().add(new Pokemon());
+        cache.getFirstPage(20).getPokemonList().add(new Pokemon());
+
+        assertEquals(20, cache.getFirstPage(20).getPageSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        PokemonListPageCache cache = newCache(null, 2);
+        cache.addPage(link(0, 20), page(0, 20));
+        cache.addPage(link(20, 20), page(20, 20));
+
+        // Using the first makes the second the least recently used
+        cache.getPage(link(0, 20));
+        cache.addPage(link(40, 20), page(40, 20));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getPage(link(0, 20)));
+        assertNull(cache.getPage(link(20, 20)));
+    }
+
+    @Test
+    public void testPagesSurviveANewInstance() {
+        PokemonListPageCache first = newCache(file, 10);
+        first.addFirstPage(20, page(0, 20));
+        first.addPage(link(20, 20), lastPage(20, 5));
+
+        PokemonListPageCache cache = newCache(file, 10);
+        cache.load();
+
+        assertSamePage(page(0, 20), cache.getFirstPage(20));
+        assertSamePage(lastPage(20, 5), cache.getPage(link(20, 20)));
+        assertEquals("21", cache.getPage(link(20, 20)).getPokemonList().get(0).getId());
+    }
+
+    @Test
+    public void testExpiredPagesAreMissing() {
+        newCache(file, 10).addFirstPage(20, page(0, 20));
+
+        PokemonListPageCache cache = new PokemonListPageCache(file, 10, 0, TimeUnit.MILLISECONDS, DIRECT);
+        cache.load();
+        cache.addPage(link(20, 20), page(20, 20));
+
+        assertNull(cache.getFirstPage(20));
+        assertNull(cache.getPage(link(20, 20)));
+    }
+
+    @Test
+    public void testDamagedFileIsDropped() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+
+        PokemonListPageCache cache = newCache(file, 10);
+        cache.load();
+
+        assertEquals(0, cache.size());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testTrimmedPagesStayInTheFile() {
+        PokemonListPageCache cache = newCache(file, 10);
+        cache.addFirstPage(20, page(0, 20));
+        cache.addPage(link(20, 20), page(20, 20));
+        cache.getFirstPage(20);
+
+        cache.trimMemory(0.5f);
+
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getFirstPage(20));
+        assertNull(cache.getPage(link(20, 20)));
+
+        // The next write keeps the trimmed page in the file
+        cache.addPage(link(40, 20), page(40, 20));
+        cache.trimMemory(0f);
+        assertEquals(0, cache.size());
+
+        PokemonListPageCache reloaded = newCache(file, 10);
+        reloaded.load();
+
+        assertSamePage(page(0, 20), reloaded.getFirstPage(20));
+        assertSamePage(page(20, 20), reloaded.getPage(link(20, 20)));
+        assertSamePage(page(40, 20), reloaded.getPage(link(40, 20)));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        PokemonListPageCache cache = newCache(file, 10);
+        cache.addFirstPage(20, page(0, 20));
+        cache.removeAll();
+
+        assertNull(cache.getFirstPage(20));
+        assertFalse(file.exists());
+    }
+
+    private static PokemonListPageCache newCache(File file, int maxPages) {
+        return new PokemonListPageCache(file, maxPages, 1, TimeUnit.DAYS, DIRECT);
+    }
+
+    private static PokemonList page(int offset, int limit) {
+        PokemonList page = lastPage(offset, limit);
+        page.setNextLink(link(offset + limit, limit));
+        return page;
+    }
+
+    /*
+        The last page has a link without a url
+     */
+    private static PokemonList lastPage(int offset, int count) {
+        PokemonList page = new PokemonList();
+        for (int i=0;i<count;i++) {
+            Pokemon pokemon = new Pokemon();
+            pokemon.setName("pokemon-" + (offset + i + 1));
+            pokemon.setUrl(link(API + (offset + i + 1) + "/"));
+            page.getPokemonList().add(pokemon);
+        }
+        page.setNextLink(new Link());
+
+        return page;
+    }
+
+    private static Link link(int offset, int limit) {
+        return link(API + "?offset=" + offset + "&limit=" + limit);
+    }
+
+    private static Link link(String url) {
+        Link link = new Link();
+        link.setLinkUrl(url);
+        return link;
+    }
+
+    private static void assertSamePage(PokemonList expected, PokemonList actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getNextLink().getLinkUrl(), actual.getNextLink().getLinkUrl());
+        assertEquals(expected.getPageSize(), actual.getPageSize());
+
+        ArrayList<Pokemon> expectedList = expected.getPokemonList();
+        ArrayList<Pokemon> actualList = actual.getPokemonList();
+        for (int i=0;i<expectedList.size();i++) {
+            assertEquals(expectedList.get(i).getName(), actualList.get(i).getName());
+            assertEquals(expectedList.get(i).getUrl().getLinkUrl(), actualList.get(i).getUrl().getLinkUrl());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the second request is sent only after the delay and that the first answer wins
+ */
+public class HedgedCallTest {
+    @Test
+    public void testFastCallIsNotHedged() throws InterruptedException {
+        FakeCall primary = new FakeCall();
+        Recorder recorder = new Recorder();
+
+        new HedgedCall<>(primary, 200).enqueue(recorder);
+        primary.succeed("first");
+
+        assertEquals("first", recorder.await());
+        Thread.sleep(300);
+        assertEquals(1, primary.calls.size());
+    }
+
+    @Test
+    public void testHedgeWinsAndPrimaryIsCanceled() throws InterruptedException {
+        FakeCall primary = new FakeCall();
+        Recorder recorder = new Recorder();
+
+        new HedgedCall<>(primary, 10).enqueue(recorder);
+        FakeCall hedge = primary.awaitClone();
+        hedge.succeed("hedge");
+
+        assertEquals("hedge", recorder.await());
+        assertTrue(primary.canceled);
+        assertFalse(hedge.canceled);
+
+        // The late answer of the primary is ignored
+        primary.succeed("late");
+        assertEquals(1, recorder.deliveries);
+    }
+
+    @Test
+    public void testHedgeWinIsNotReportedAsCanceled() throws InterruptedException {
+        FakeCall primary = new FakeCall();
+        Recorder recorder = new Recorder();
+
+        new HedgedCall<>(primary, 10).enqueue(recorder);
+        primary.awaitClone().succeed("hedge");
+
+        assertEquals("hedge", recorder.await());
+        assertTrue(primary.canceled);
+        // The repository drops the answers of canceled calls
+        assertFalse(recorder.canceledOnDelivery);
+    }
+
+    @Test
+    public void testCanceledCallIsReportedAsCanceled() {
+        FakeCall primary = new FakeCall();
+        HedgedCall<String> call = new HedgedCall<>(primary, 200);
+
+        call.enqueue(new Recorder());
+        call.cancel();
+
+        assertTrue(call.isCanceled());
+        assertTrue(primary.canceled);
+    }
+
+    @Test
+    public void testFailureWaitsForTheOtherRequest() throws InterruptedException {
+        FakeCall primary = new FakeCall();
+        Recorder recorder = new Recorder();
+
+        new HedgedCall<>(primary, 10).enqueue(recorder);
+        FakeCall hedge = primary.awaitClone();
+
+        primary.fail(new IOException("reset"));
+        assertEquals(0, recorder.deliveries);
+
+        hedge.succeed("hedge");
+        assertEquals("hedge", recorder.await());
+    }
+
+    @Test
+    public void testBothFail() throws InterruptedException {
+        FakeCall primary = new FakeCall();
+        Recorder recorder = new Recorder();
+
+        new HedgedCall<>(primary, 10).enqueue(recorder);
+        FakeCall hedge = primary.awaitClone();
+
+        primary.fail(new IOException("first"));
+        hedge.fail(new IOException("second"));
+
+        assertNull(recorder.await());
+        assertEquals("second", recorder.failure.get().getMessage());
+    }
+
+    private static class Recorder implements Callback<String> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicReference<String> body = new AtomicReference<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile int deliveries;
+        private volatile boolean canceledOnDelivery;
+
+        @Override
+        public synchronized void onResponse(Call<String> call, Response<String> response) {
+            deliveries++;
+            canceledOnDelivery = call.isCanceled();
+            body.set(response.body());
+            latch.countDown();
+        }
+
+        @Override
+        public synchronized void onFailure(Call<String> call, Throwable t) {
+            deliveries++;
+            failure.set(t);
+            latch.countDown();
+        }
+
+        String await() throws InterruptedException {
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            return body.get();
+        }
+    }
+
+    /*
+        A call that answers only when the test tells it to. Its clones are kept in the calls list.
+     */
+    private static class FakeCall implements Call<String> {
+        private final List<FakeCall> calls;
+        private final CountDownLatch cloned = new CountDownLatch(1);
+        private Callback<String> callback;
+        private volatile boolean canceled;
+
+        FakeCall() {
+            this(new ArrayList<FakeCall>());
+        }
+
+        private FakeCall(List<FakeCall> calls) {
+            this.calls = calls;
+            synchronized (calls) {
+                calls.add(this);
+            }
+        }
+
+        void succeed(String body) {
+            callback.onResponse(this, Response.success(body));
+        }
+
+        void fail(IOException e) {
+            callback.onFailure(this, e);
+        }
+
+        FakeCall awaitClone() throws InterruptedException {
+            assertTrue(cloned.await(2, TimeUnit.SECONDS));
+
+            // The clone is enqueued right after it is created
+            while (true) {
+                synchronized (calls) {
+                    FakeCall clone = calls.get(1);
+                    if (clone.callback != null) {
+                        return clone;
+                    }
+                }
+                Thread.sleep(1);
+            }
+        }
+
+        @Override
+        public Response<String> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback<String> callback) {
+            synchronized (calls) {
+                this.callback = callback;
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return callback != null;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<String> clone() {
+            FakeCall clone = new FakeCall(calls);
+            cloned.countDown();
+            return clone;
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://pokeapi.co/api/v2/pokemon/1/").build();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the body is mapped on the thread the call delivers to and only the finished model
+ * reaches the callback executor, and that a full mapping queue never blocks
+ */
+public class MappedCallTest {
+    private ThreadPoolExecutor mapping;
+    private ExecutorService main;
+
+    @Before
+    public void setUp() {
+        mapping = MappingExecutor.create(2, 4);
+        main = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "main");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mapping.shutdownNow();
+        main.shutdownNow();
+    }
+
+    @Test
+    public void testMappedOffTheCallbackThread() throws InterruptedException {
+        final AtomicReference<String> mappedOn = new AtomicReference<>();
+        Recorder recorder = new Recorder();
+
+        new MappedCall<>(new FakeCall(mapping, "42"), new MappedCall.Mapper<String, Integer>() {
+            @Override
+            public Integer transform(String body) {
+                mappedOn.set(Thread.currentThread().getName());
+                return Integer.valueOf(body);
+            }
+        }, main).enqueue(recorder);
+
+        recorder.await();
+        assertEquals(Integer.valueOf(42), recorder.body);
+        assertTrue(mappedOn.get().startsWith("Pokemon mapping #"));
+        assertEquals("main", recorder.thread);
+    }
+
+    @Test
+    public void testFailedMappingIsAFailure() throws InterruptedException {
+        Recorder recorder = new Recorder();
+
+        new MappedCall<>(new FakeCall(mapping, "not a number"), new MappedCall.Mapper<String, Integer>() {
+            @Override
+            public Integer transform(String body) {
+                return Integer.valueOf(body);
+            }
+        }, main).enqueue(recorder);
+
+        recorder.await();
+        assertNull(recorder.body);
+        assertTrue(recorder.failure instanceof NumberFormatException);
+        assertEquals("main", recorder.thread);
+    }
+
+    @Test
+    public void testFullQueueRunsOnTheCaller() throws InterruptedException {
+        ThreadPoolExecutor executor = MappingExecutor.create(1, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<String> ranOn = new AtomicReference<>();
+
+        try {
+            Runnable blocking = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+
+            // One running and one queued, the next one has no room
+            executor.execute(blocking);
+            executor.execute(blocking);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ranOn.set(Thread.currentThread().getName());
+                }
+            });
+
+            assertEquals(Thread.currentThread().getName(), ranOn.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static class Recorder implements Callback<Integer> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        volatile Integer body;
+        volatile Throwable failure;
+        volatile String thread;
+
+        @Override
+        public void onResponse(Call<Integer> call, Response<Integer> response) {
+            body = response.body();
+            thread = Thread.currentThread().getName();
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(Call<Integer> call, Throwable t) {
+            failure = t;
+            thread = Thread.currentThread().getName();
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+        }
+    }
+
+    /*
+        Answers right away on the executor, like Retrofit does on its callback executor
+     */
+    private static class FakeCall implements Call<String> {
+        private final ThreadPoolExecutor callbackExecutor;
+        private final String body;
+
+        FakeCall(ThreadPoolExecutor callbackExecutor, String body) {
+            this.callbackExecutor = callbackExecutor;
+            this.body = body;
+        }
+
+        @Override
+        public Response<String> execute() {
+            return Response.success(body);
+        }
+
+        @Override
+        public void enqueue(final Callback<String> callback) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onResponse(FakeCall.this, Response.success(body));
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public Call<String> clone() {
+            return new FakeCall(callbackExecutor, body);
+        }
+
+        @Override
+        public Request request() {
+            return null;
+        }
+    }
+}
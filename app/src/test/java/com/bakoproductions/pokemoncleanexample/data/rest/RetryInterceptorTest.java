@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.data.rest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which requests are sent again and how long we wait in between
+ */
+public class RetryInterceptorTest {
+    private static final Request GET = new Request.Builder()
+            .url("https://pokeapi.co/api/v2/pokemon/1/")
+            .build();
+
+    private final RetryPolicy policy = new RetryPolicy(3, 1, 4, TimeUnit.MILLISECONDS, new Random(7));
+
+    @Test
+    public void testRetriesUntilSuccess() throws IOException {
+        FakeChain chain = new FakeChain(GET, new IOException("reset"), 503, 200);
+
+        Response response = new RetryInterceptor(policy).intercept(chain);
+
+        assertEquals(200, response.code());
+        assertEquals(3, chain.attempts);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        FakeChain chain = new FakeChain(GET,
+                new IOException("1"), new IOException("2"), new IOException("3"), 200);
+
+        try {
+            new RetryInterceptor(policy).intercept(chain);
+            fail("The last exception should be thrown");
+        } catch (IOException e) {
+            assertEquals("3", e.getMessage());
+        }
+
+        assertEquals(3, chain.attempts);
+    }
+
+    @Test
+    public void testLastErrorResponseIsReturned() throws IOException {
+        FakeChain chain = new FakeChain(GET, 503, 502, 500, 200);
+
+        Response response = new RetryInterceptor(policy).intercept(chain);
+
+        assertEquals(500, response.code());
+        assertEquals(3, chain.attempts);
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws IOException {
+        FakeChain chain = new FakeChain(GET, 404, 200);
+
+        assertEquals(404, new RetryInterceptor(policy).intercept(chain).code());
+        assertEquals(1, chain.attempts);
+    }
+
+    @Test
+    public void testCanceledCallIsNotRetried() {
+        FakeChain chain = new FakeChain(GET, new IOException("stream was reset: CANCEL"), 200);
+        chain.call.cancel();
+
+        try {
+            new RetryInterceptor(policy).intercept(chain);
+            fail("A canceled call should fail right away");
+        } catch (IOException e) {
+            assertEquals(1, chain.attempts);
+        }
+    }
+
+    @Test
+    public void testOfflineCacheMissIsNotRetried() throws IOException {
+        Request offline = GET.newBuilder()
+                .cacheControl(new CacheControl.Builder().onlyIfCached().build())
+                .build();
+        // What OkHttp answers when only-if-cached finds nothing
+        FakeChain chain = new FakeChain(offline, 504, 200);
+
+        Response response = new RetryInterceptor(policy).intercept(chain);
+
+        assertEquals(504, response.code());
+        assertEquals(1, chain.attempts);
+    }
+
+    @Test
+    public void testUnknownHostIsNotRetried() {
+        FakeChain chain = new FakeChain(GET, new UnknownHostException("pokeapi.co"), 200);
+
+        try {
+            new RetryInterceptor(policy).intercept(chain);
+            fail("We are offline, so the cache should take over right away");
+        } catch (IOException e) {
+            assertEquals(1, chain.attempts);
+        }
+    }
+
+    @Test
+    public void testHeadIsNotRetried() {
+        Request head = GET.newBuilder().head().build();
+        FakeChain chain = new FakeChain(head, new IOException("reset"), 200);
+
+        try {
+            new RetryInterceptor(policy).intercept(chain);
+            fail("The warm up HEAD should never be sent twice");
+        } catch (IOException e) {
+            assertEquals(1, chain.attempts);
+        }
+    }
+
+    @Test
+    public void testPostIsNotRetried() {
+        Request post = GET.newBuilder()
+                .post(RequestBody.create(MediaType.parse("text/plain"), "x"))
+                .build();
+        FakeChain chain = new FakeChain(post, new IOException("reset"), 200);
+
+        try {
+            new RetryInterceptor(policy).intercept(chain);
+            fail("A post should never be sent twice");
+        } catch (IOException e) {
+            assertEquals(1, chain.attempts);
+        }
+    }
+
+    @Test
+    public void testDelayIsBoundedAndGrows() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, TimeUnit.MILLISECONDS, new Random(1));
+
+        long firstMax = 0;
+        long laterMax = 0;
+        for (int i=0;i<1000;i++) {
+            long first = policy.getDelayMillis(1);
+            long later = policy.getDelayMillis(30);
+
+            assertTrue(first >= 0 && first <= 100);
+            assertTrue(later >= 0 && later <= 1000);
+
+            firstMax = Math.max(firstMax, first);
+            laterMax = Math.max(laterMax, later);
+        }
+
+        assertTrue(laterMax > firstMax);
+    }
+
+    /*
+        Answers every proceed with the next exception or status code
+     */
+    private static class FakeChain implements Interceptor.Chain {
+        private final Request request;
+        private final List<Object> outcomes = new ArrayList<>();
+        // Never executed, it only carries the canceled flag
+        final Call call;
+        int attempts;
+
+        FakeChain(Request request, Object... outcomes) {
+            this.request = request;
+            this.call = new OkHttpClient().newCall(request);
+            for (Object outcome : outcomes) {
+                this.outcomes.add(outcome);
+            }
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) throws IOException {
+            Object outcome = outcomes.get(attempts++);
+            if (outcome instanceof IOException) {
+                throw (IOException) outcome;
+            }
+
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code((Integer) outcome)
+                    .message("")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                    .build();
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+
+        @Override
+        public Call call() {
+            return call;
+        }
+
+        @Override
+        public int connectTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withConnectTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int readTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withReadTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int writeTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withWriteTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonList;
+import com.bakoproductions.pokemoncleanexample.domain.models.errors.PokemonListError;
+import com.squareup.otto.Bus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the bus delivers like Otto did, and measures the register, post and unregister
+ * cycle of a use case against Otto
+ */
+public class EventBusTest {
+    private static final int CYCLES = 200000;
+
+    @Test
+    public void testEventReachesHandlersOfItsType() {
+        EventBus bus = newBus();
+        final ArrayList<Object> received = new ArrayList<>();
+
+        bus.register(new EventHandlers()
+                .on(PokemonList.class, recording(received, "list"))
+                .on(String.class, recording(received, "string")));
+
+        bus.post(new PokemonList());
+        bus.post(42);
+
+        assertEquals(Arrays.<Object>asList("list"), received);
+    }
+
+    @Test
+    public void testSupertypesReceiveTheEvent() {
+        EventBus bus = newBus();
+        final ArrayList<Object> received = new ArrayList<>();
+
+        bus.register(new EventHandlers()
+                .on(Object.class, recording(received, "object"))
+                .on(CharSequence.class, recording(received, "chars"))
+                .on(String.class, recording(received, "string")));
+
+        bus.post("event");
+
+        assertEquals(3, received.size());
+        assertTrue(received.containsAll(Arrays.asList("object", "chars", "string")));
+    }
+
+    @Test
+    public void testNothingIsDeliveredAfterUnregister() {
+        EventBus bus = newBus();
+        final ArrayList<Object> received = new ArrayList<>();
+        final EventHandlers second = new EventHandlers().on(String.class, recording(received, "second"));
+
+        // The first handler unregisters the second while the event is being delivered
+        final EventBus finalBus = bus;
+        bus.register(new EventHandlers().on(String.class, new EventHandler<String>() {
+            @Override
+            public void onEvent(String event) {
+                received.add("first");
+                if (received.size() == 1) {
+                    finalBus.unregister(second);
+                }
+            }
+        }));
+        bus.register(second);
+
+        bus.post("event");
+        bus.post("event");
+
+        assertEquals(Arrays.<Object>asList("first", "first"), received);
+    }
+
+    @Test
+    public void testEventsPostedWhileDeliveringKeepTheirOrder() {
+        final EventBus bus = newBus();
+        final ArrayList<Object> received = new ArrayList<>();
+
+        bus.register(new EventHandlers()
+                .on(String.class, new EventHandler<String>() {
+                    @Override
+                    public void onEvent(String event) {
+                        received.add("string");
+                        bus.post(1);
+                        received.add("string done");
+                    }
+                })
+                .on(Integer.class, recording(received, "integer")));
+
+        bus.post("event");
+
+        assertEquals(Arrays.<Object>asList("string", "string done", "integer"), received);
+    }
+
+    @Test
+    public void testBatchListenerRunsOncePerBatch() {
+        EventBus bus = newBus();
+        final ArrayList<Object> received = new ArrayList<>();
+
+        bus.register(new EventHandlers()
+                .on(String.class, recording(received, "string"))
+                .onBatchDelivered(new Runnable() {
+                    @Override
+                    public void run() {
+                        received.add("batch");
+                    }
+                }));
+        // Nothing of the batch is for these handlers, so they are not told about it
+        bus.register(new EventHandlers()
+                .on(Integer.class, recording(received, "integer"))
+                .onBatchDelivered(new Runnable() {
+                    @Override
+                    public void run() {
+                        received.add("integer batch");
+                    }
+                }));
+
+        bus.postAll(Arrays.asList("first", "second", "third"));
+        bus.post("fourth");
+
+        assertEquals(Arrays.<Object>asList(
+                "string", "string", "string", "batch", "string", "batch"), received);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoubleRegisterFails() {
+        EventBus bus = newBus();
+        EventHandlers handlers = new EventHandlers().on(String.class, recording(new ArrayList<>(), ""));
+
+        bus.register(handlers);
+        bus.register(handlers);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisterUnknownFails() {
+        newBus().unregister(new EventHandlers());
+    }
+
+    @Test
+    public void testGeneratedTableCallsTheAnnotatedMethods() {
+        EventBus bus = newBus();
+        ListSubscriber subscriber = new ListSubscriber();
+
+        bus.register(EventBusTest_ListSubscriber_EventHandlers.create(subscriber));
+        bus.post(new PokemonList());
+        bus.post(new PokemonListError());
+        bus.post("ignored");
+
+        assertEquals(Arrays.<Object>asList("list", "batch", "error", "batch"), subscriber.received);
+    }
+
+    @Test
+    public void testCycleCostAgainstOtto() {
+        EventBus bus = newBus();
+        Bus otto = new Bus(com.squareup.otto.ThreadEnforcer.ANY);
+        PokemonList event = new PokemonList();
+
+        // Warming up the JIT before we measure
+        measureBus(bus, event);
+        measureOtto(otto, event);
+
+        long[] busNanos = measureBus(bus, event);
+        long[] ottoNanos = measureOtto(otto, event);
+
+        System.out.println(String.format(
+                "Use case cycle: event bus register %4d ns, post %4d ns, unregister %4d ns",
+                busNanos[0], busNanos[1], busNanos[2]));
+        System.out.println(String.format(
+                "Use case cycle: otto      register %4d ns, post %4d ns, unregister %4d ns",
+                ottoNanos[0], ottoNanos[1], ottoNanos[2]));
+    }
+
+    /*
+        What every list use case does: a new subscriber that registers, gets its event and leaves
+     */
+    private long[] measureBus(EventBus bus, PokemonList event) {
+        final CountingSubscriber subscriber = new CountingSubscriber();
+        long register = 0, post = 0, unregister = 0;
+
+        for (int i=0;i<CYCLES;i++) {
+            EventHandlers handlers = EventBusTest_CountingSubscriber_EventHandlers.create(subscriber);
+
+            long start = System.nanoTime();
+            bus.register(handlers);
+            long registered = System.nanoTime();
+            bus.post(event);
+            long posted = System.nanoTime();
+            bus.unregister(handlers);
+            long end = System.nanoTime();
+
+            register += registered - start;
+            post += posted - registered;
+            unregister += end - posted;
+        }
+
+        assertEquals(CYCLES, subscriber.received);
+        return new long[] { register / CYCLES, post / CYCLES, unregister / CYCLES };
+    }
+
+    private long[] measureOtto(Bus otto, PokemonList event) {
+        final int[] received = new int[1];
+        long register = 0, post = 0, unregister = 0;
+
+        for (int i=0;i<CYCLES;i++) {
+            Object subscriber = new Object() {
+                @com.squareup.otto.Subscribe
+                public void onPokemonListReceived(PokemonList event) {
+                    received[0]++;
+                }
+            };
+
+            long start = System.nanoTime();
+            otto.register(subscriber);
+            long registered = System.nanoTime();
+            otto.post(event);
+            long posted = System.nanoTime();
+            otto.unregister(subscriber);
+            long end = System.nanoTime();
+
+            register += registered - start;
+            post += posted - registered;
+            unregister += end - posted;
+        }
+
+        assertEquals(CYCLES, received[0]);
+        return new long[] { register / CYCLES, post / CYCLES, unregister / CYCLES };
+    }
+
+    private static EventBus newBus() {
+        return new EventBus("test", EventBus.ThreadEnforcer.ANY);
+    }
+
+    private static <T> EventHandler<T> recording(final ArrayList<Object> received, final Object name) {
+        return new EventHandler<T>() {
+            @Override
+            public void onEvent(T event) {
+                received.add(name);
+            }
+        };
+    }
+
+    static class ListSubscriber {
+        final ArrayList<Object> received = new ArrayList<>();
+
+        @Subscribe
+        void onPokemonListReceived(PokemonList event) {
+            received.add("list");
+        }
+
+        @Subscribe
+        void onPokemonListError(PokemonListError error) {
+            received.add("error");
+        }
+
+        @BatchDelivered
+        void onBatchDelivered() {
+            received.add("batch");
+        }
+    }
+
+    static class CountingSubscriber {
+        int received;
+
+        @Subscribe
+        void onPokemonListReceived(PokemonList event) {
+            received++;
+        }
+    }
+}
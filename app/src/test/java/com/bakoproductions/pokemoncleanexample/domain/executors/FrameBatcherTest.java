@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the events of a frame are posted together when the frame starts
+ */
+public class FrameBatcherTest {
+    private EventBus bus;
+    private ArrayList<Object> received;
+
+    @Before
+    public void setUp() {
+        bus = new EventBus("test", EventBus.ThreadEnforcer.ANY);
+        received = new ArrayList<>();
+
+        bus.register(new EventHandlers()
+                .on(String.class, new EventHandler<String>() {
+                    @Override
+                    public void onEvent(String event) {
+                        received.add(event);
+                    }
+                })
+                .onBatchDelivered(new Runnable() {
+                    @Override
+                    public void run() {
+                        received.add("batch");
+                    }
+                }));
+    }
+
+    @Test
+    public void testEventsOfAFrameArePostedTogether() {
+        ManualFrames frames = new ManualFrames();
+        FrameBatcher batcher = new FrameBatcher(bus, frames);
+
+        batcher.post("first");
+        batcher.post("second");
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, frames.callbacks.size());
+
+        frames.next();
+        assertEquals(Arrays.<Object>asList("first", "second", "batch"), received);
+
+        // The next event waits for the next frame
+        batcher.post("third");
+        assertEquals(1, frames.callbacks.size());
+
+        frames.next();
+        assertEquals(Arrays.<Object>asList("first", "second", "batch", "third", "batch"), received);
+    }
+
+    @Test
+    public void testWithoutFramesEveryEventIsPostedRightAway() {
+        FrameBatcher batcher = new FrameBatcher(bus, FrameScheduler.IMMEDIATE);
+
+        batcher.post("first");
+        batcher.post("second");
+
+        assertEquals(Arrays.<Object>asList("first", "batch", "second", "batch"), received);
+    }
+
+    private static class ManualFrames implements FrameScheduler {
+        final ArrayList<Runnable> callbacks = new ArrayList<>();
+
+        @Override
+        public void scheduleFrame(Runnable callback) {
+            callbacks.add(callback);
+        }
+
+        void next() {
+            ArrayList<Runnable> frame = new ArrayList<>(callbacks);
+            callbacks.clear();
+
+            for (int i=0;i<frame.size();i++) {
+                frame.get(i).run();
+            }
+        }
+    }
+}
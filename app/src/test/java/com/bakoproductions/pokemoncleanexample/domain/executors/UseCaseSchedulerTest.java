@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the caps of every priority and that the less urgent work waits for the more urgent
+ */
+public class UseCaseSchedulerTest {
+    private UseCaseScheduler scheduler;
+    private ArrayList<String> started;
+
+    @Before
+    public void setUp() {
+        scheduler = new UseCaseScheduler(2, 1, 1, 2);
+        started = new ArrayList<>();
+    }
+
+    @Test
+    public void testEveryPriorityIsCapped() {
+        Job first = new Job("first", Priority.USER_VISIBLE);
+        scheduler.schedule(first);
+        scheduler.schedule(new Job("second", Priority.USER_VISIBLE));
+        scheduler.schedule(new Job("third", Priority.USER_VISIBLE));
+
+        assertEquals(Arrays.asList("first", "second"), started);
+        assertEquals(1, scheduler.getWaitingCount(Priority.USER_VISIBLE));
+
+        first.finish();
+
+        assertEquals(Arrays.asList("first", "second", "third"), started);
+        assertEquals(2, scheduler.getRunningCount(Priority.USER_VISIBLE));
+    }
+
+    @Test
+    public void testLessUrgentWorkRunsNextToMoreUrgentWork() {
+        scheduler.schedule(new Job("details", Priority.USER_VISIBLE));
+        scheduler.schedule(new Job("prefetch", Priority.PREFETCH));
+        scheduler.schedule(new Job("refresh", Priority.BACKGROUND_REFRESH));
+
+        // A slow details request doesn't stop the rest
+        assertEquals(Arrays.asList("details", "prefetch", "refresh"), started);
+    }
+
+    @Test
+    public void testWaitingWorkIsPreemptedByMoreUrgentWork() {
+        Job first = new Job("first", Priority.USER_VISIBLE);
+        Job firstPrefetch = new Job("first prefetch", Priority.PREFETCH);
+
+        scheduler.schedule(first);
+        scheduler.schedule(new Job("second", Priority.USER_VISIBLE));
+        scheduler.schedule(firstPrefetch);
+        scheduler.schedule(new Job("second prefetch", Priority.PREFETCH));
+        assertEquals(Arrays.asList("first", "second", "first prefetch"), started);
+
+        // The user opens a pokemon while every user visible place is taken
+        scheduler.schedule(new Job("details", Priority.USER_VISIBLE));
+        firstPrefetch.finish();
+
+        // The second batch waits for the details to start
+        assertEquals(Arrays.asList("first", "second", "first prefetch"), started);
+        assertEquals(1, scheduler.getWaitingCount(Priority.PREFETCH));
+
+        first.finish();
+        assertEquals(
+                Arrays.asList("first", "second", "first prefetch", "details", "second prefetch"),
+                started);
+    }
+
+    @Test
+    public void testCancelledWaitingWorkNeverStarts() {
+        Job first = new Job("first prefetch", Priority.PREFETCH);
+        scheduler.schedule(first);
+        Cancellable second = scheduler.schedule(new Job("second prefetch", Priority.PREFETCH));
+
+        second.cancel();
+        first.finish();
+
+        assertTrue(second.isCancelled());
+        assertEquals(Arrays.asList("first prefetch"), started);
+        assertEquals(0, scheduler.getWaitingCount(Priority.PREFETCH));
+    }
+
+    @Test
+    public void testOldestWaitingPrefetchIsDropped() {
+        Job first = new Job("page 1", Priority.PREFETCH);
+        scheduler.schedule(first);
+        Cancellable second = scheduler.schedule(new Job("page 2", Priority.PREFETCH));
+        scheduler.schedule(new Job("page 3", Priority.PREFETCH));
+        scheduler.schedule(new Job("page 4", Priority.PREFETCH));
+
+        // The user scrolled past the second page while the first one was being prefetched
+        assertTrue(second.isCancelled());
+        assertEquals(2, scheduler.getWaitingCount(Priority.PREFETCH));
+
+        first.finish();
+        assertEquals(Arrays.asList("page 1", "page 3"), started);
+    }
+
+    @Test
+    public void testUserVisibleWorkIsNeverDropped() {
+        for (int i=0;i<5;i++) {
+            scheduler.schedule(new Job("details " + i, Priority.USER_VISIBLE));
+        }
+
+        assertEquals(2, scheduler.getRunningCount(Priority.USER_VISIBLE));
+        assertEquals(3, scheduler.getWaitingCount(Priority.USER_VISIBLE));
+    }
+
+    @Test
+    public void testCancelledRunningWorkFreesItsPlace() {
+        Job first = new Job("first", Priority.USER_VISIBLE);
+        Cancellable handle = scheduler.schedule(first);
+        scheduler.schedule(new Job("second", Priority.USER_VISIBLE));
+        scheduler.schedule(new Job("third", Priority.USER_VISIBLE));
+
+        handle.cancel();
+        // Finishing it once more doesn't free a second place
+        first.finish();
+
+        assertTrue(first.cancelled);
+        assertEquals(Arrays.asList("first", "second", "third"), started);
+        assertEquals(2, scheduler.getRunningCount(Priority.USER_VISIBLE));
+    }
+
+    @Test
+    public void testWorkThatFinishesRightAwayLetsTheNextStart() {
+        Job prefetch = new Job("prefetch", Priority.PREFETCH);
+        scheduler.schedule(prefetch);
+        scheduler.schedule(new Job("first refresh", Priority.BACKGROUND_REFRESH, true));
+        scheduler.schedule(new Job("second refresh", Priority.BACKGROUND_REFRESH, true));
+
+        assertEquals(Arrays.asList("prefetch", "first refresh", "second refresh"), started);
+        assertEquals(0, scheduler.getRunningCount(Priority.BACKGROUND_REFRESH));
+    }
+
+    @Test
+    public void testEveryWayOfFinishingIsReported() {
+        final ArrayList<String> finished = new ArrayList<>();
+        Job running = new Job("page 1", Priority.PREFETCH);
+
+        scheduler.schedule(running, finishing(finished, "page 1"));
+        scheduler.schedule(new Job("page 2", Priority.PREFETCH), finishing(finished, "page 2"));
+        Cancellable third = scheduler.schedule(
+                new Job("page 3", Priority.PREFETCH), finishing(finished, "page 3"));
+        scheduler.schedule(new Job("page 4", Priority.PREFETCH), finishing(finished, "page 4"));
+
+        // The second page is dropped, the third cancelled before it starts
+        third.cancel();
+        third.cancel();
+        running.finish();
+
+        assertEquals(Arrays.asList("page 2", "page 3", "page 1"), finished);
+        assertEquals(Arrays.asList("page 1", "page 4"), started);
+    }
+
+    private static Runnable finishing(final ArrayList<String> finished, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                finished.add(name);
+            }
+        };
+    }
+
+    private class Job implements Schedulable, Cancellable {
+        private final String name;
+        private final Priority priority;
+        private final boolean finishesRightAway;
+        private Runnable onFinished;
+        private boolean cancelled;
+
+        Job(String name, Priority priority) {
+            this(name, priority, false);
+        }
+
+        Job(String name, Priority priority, boolean finishesRightAway) {
+            this.name = name;
+            this.priority = priority;
+            this.finishesRightAway = finishesRightAway;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Cancellable start(Runnable onFinished) {
+            this.onFinished = onFinished;
+            started.add(name);
+
+            if (finishesRightAway) {
+                finish();
+            }
+            return this;
+        }
+
+        void finish() {
+            onFinished.run();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            finish();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.domain.memory;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that we give back more memory the closer the app is to being killed, and that every
+ * registered cache hears about it
+ */
+public class TrimPolicyTest {
+    @Test
+    public void testBackgroundLevelsKeepLess() {
+        int[] levels = {
+                ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN,
+                ComponentCallbacks2.TRIM_MEMORY_BACKGROUND,
+                ComponentCallbacks2.TRIM_MEMORY_MODERATE,
+                ComponentCallbacks2.TRIM_MEMORY_COMPLETE
+        };
+
+        float previous = 1f;
+        for (int i=0;i<levels.length;i++) {
+            float keep = TrimPolicy.getKeepFraction(levels[i]);
+            assertTrue(keep <= previous);
+            previous = keep;
+        }
+
+        assertEquals(0f, TrimPolicy.getKeepFraction(ComponentCallbacks2.TRIM_MEMORY_COMPLETE), 0f);
+    }
+
+    @Test
+    public void testRunningLevelsKeepLess() {
+        float moderate = TrimPolicy.getKeepFraction(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        float low = TrimPolicy.getKeepFraction(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        float critical = TrimPolicy.getKeepFraction(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+        assertTrue(moderate < 1f);
+        assertTrue(low < moderate);
+        assertTrue(critical < low);
+        // The app is still in use, so it always keeps something
+        assertTrue(critical > 0f);
+    }
+
+    @Test
+    public void testTrimmedSize() {
+        assertEquals(100, TrimPolicy.getTrimmedSize(100, 0));
+        assertEquals(50, TrimPolicy.getTrimmedSize(100, ComponentCallbacks2.TRIM_MEMORY_BACKGROUND));
+        assertEquals(0, TrimPolicy.getTrimmedSize(100, ComponentCallbacks2.TRIM_MEMORY_COMPLETE));
+    }
+
+    @Test
+    public void testRegistryTrimsEveryCache() {
+        final ArrayList<Integer> levels = new ArrayList<>();
+        Trimmable trimmable = new Trimmable() {
+            @Override
+            public void onTrimMemory(int level) {
+                levels.add(level);
+            }
+        };
+
+        TrimmableRegistry registry = new TrimmableRegistry();
+        registry.register(trimmable);
+        // Registering twice doesn't trim twice
+        registry.register(trimmable);
+        registry.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+
+        registry.unregister(trimmable);
+        registry.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        assertEquals(1, levels.size());
+        assertEquals(ComponentCallbacks2.TRIM_MEMORY_MODERATE, (int) levels.get(0));
+    }
+}
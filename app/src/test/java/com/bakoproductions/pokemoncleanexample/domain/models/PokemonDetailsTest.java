@@ -18,6 +18,7 @@ package com.bakoproductions.pokemoncleanexample.domain.models;
 
 import org.junit.Test;
 
+import static com.bakoproductions.pokemoncleanexample.testutil.PokemonDetailsFixtures.bulbasaur;
 import static org.junit.Assert.*;
 
 /**
@@ -85,4 +86,30 @@ public class PokemonDetailsTest {
 
         assertTrue(d1.equals(d2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSameContent() {
+        PokemonDetails details = bulbasaur("1");
+        assertTrue(details.hasSameContent(bulbasaur("1")));
+        assertTrue(new PokemonDetails("1").hasSameContent(new PokemonDetails("1")));
+    }
+
+    @Test
+    public void testDifferentContent() {
+        PokemonDetails d1 = bulbasaur("1");
+
+        PokemonDetails faster = bulbasaur("1");
+        faster.getStats().get(0).setBase(50);
+        assertFalse(d1.hasSameContent(faster));
+        assertFalse(d1.hasSameContent(bulbasaur("2")));
+        assertFalse(d1.hasSameContent(null));
+
+        PokemonDetails d2 = bulbasaur("1");
+        d2.getTypes().add("poison");
+        assertFalse(d1.hasSameContent(d2));
+
+        PokemonDetails d3 = bulbasaur("1");
+        d3.getAbilities().get(0).setHidden(true);
+        assertFalse(d1.hasSameContent(d3));
+    }
+}
@@ -34,6 +34,16 @@ public class PokemonTest {
         assertEquals("100", pokemon.getId());
     }
 
+    @Test
+    public void testGetIdHttps() {
+        Pokemon pokemon = new Pokemon();
+        Link link = new Link();
+        link.setLinkUrl("https://pokeapi.co/api/v2/pokemon/25/");
+        pokemon.setUrl(link);
+
+        assertEquals("25", pokemon.getId());
+    }
+
     @Test
     public void testGetName() {
         Pokemon pokemon = new Pokemon();
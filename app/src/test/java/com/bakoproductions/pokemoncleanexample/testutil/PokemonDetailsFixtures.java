@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bakoproductions.pokemoncleanexample.testutil;
+
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonAbility;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonDetails;
+import com.bakoproductions.pokemoncleanexample.domain.models.PokemonStat;
+
+import java.util.ArrayList;
+
+/**
+ * Builds the details models for the tests, with the same content the details payload of
+ * PokemonJsonFixtures maps to. Every call returns a new model the test may change.
+ */
+public class PokemonDetailsFixtures {
+    private static final String[] STATS = {
+            "speed", "special-defense", "special-attack", "defense", "attack", "hp"
+    };
+
+    /*
+        Every name is a new string, the way the json reader creates them
+     */
+    public static PokemonDetails bulbasaur(String id) {
+        PokemonDetails details = new PokemonDetails(id);
+        details.setWeight(69);
+        details.setBaseXP(64);
+
+        ArrayList<String> types = new ArrayList<>();
+        types.add(new String("poison"));
+        types.add(new String("grass"));
+        details.setTypes(types);
+
+        ArrayList<PokemonAbility> abilities = new ArrayList<>();
+        abilities.add(ability(new String("overgrow"), false));
+        abilities.add(ability(new String("chlorophyll"), true));
+        details.setAbilities(abilities);
+
+        ArrayList<PokemonStat> stats = new ArrayList<>();
+        for (int i=0;i<STATS.length;i++) {
+            PokemonStat stat = new PokemonStat();
+            stat.setName(new String(STATS[i]));
+            stat.setBase(45 + i * 4);
+            stat.setEffort(i == 2 ? 1 : 0);
+            stats.add(stat);
+        }
+        details.setStats(stats);
+
+        return details;
+    }
+
+    private static PokemonAbility ability(String name, boolean hidden) {
+        PokemonAbility ability = new PokemonAbility();
+        ability.setName(name);
+        ability.setHidden(hidden);
+        return ability;
+    }
+}
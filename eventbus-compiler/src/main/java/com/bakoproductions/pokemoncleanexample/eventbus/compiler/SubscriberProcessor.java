@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Michael Bakogiannis, Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.bakoproductions.pokemoncleanexample.eventbus.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the EventHandlers table of every class with @Subscribe or @BatchDelivered methods.
+ *
+ * For a class Foo it writes Foo_EventHandlers in the same package, with a static create(Foo)
+ * that returns a table with one typed EventHandler per @Subscribe method. So the subscribers get
+ * the same dispatch as a table written by hand, without writing it and without any reflection.
+ *
+ * The annotations are matched by name, so this module doesn't depend on the app.
+ */
+public class SubscriberProcessor extends AbstractProcessor {
+    private static final String PACKAGE =
+            "com.bakoproductions.pokemoncleanexample.domain.executors";
+    private static final String SUBSCRIBE = PACKAGE + ".Subscribe";
+    private static final String BATCH_DELIVERED = PACKAGE + ".BatchDelivered";
+
+    private static final String SUFFIX = "_EventHandlers";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(SUBSCRIBE, BATCH_DELIVERED));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        // The methods of every subscriber class, in the order they were declared
+        Map<TypeElement, Subscriber> subscribers = new LinkedHashMap<>();
+
+        for (TypeElement annotation : annotations) {
+            boolean batch = annotation.getQualifiedName().contentEquals(BATCH_DELIVERED);
+
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                ExecutableElement method = (ExecutableElement) element;
+                TypeElement owner = (TypeElement) method.getEnclosingElement();
+
+                if (!isValid(method, owner, batch)) {
+                    continue;
+                }
+
+                Subscriber subscriber = subscribers.get(owner);
+                if (subscriber == null) {
+                    subscriber = new Subscriber(owner);
+                    subscribers.put(owner, subscriber);
+                }
+
+                if (!batch) {
+                    subscriber.methods.add(method);
+                } else if (subscriber.batchMethod == null) {
+                    subscriber.batchMethod = method;
+                } else {
+                    error(method, "A class can have only one @BatchDelivered method");
+                }
+            }
+        }
+
+        for (Subscriber subscriber : subscribers.values()) {
+            write(subscriber);
+        }
+
+        return true;
+    }
+
+    private boolean isValid(ExecutableElement method, TypeElement owner, boolean batch) {
+        Set<Modifier> modifiers = method.getModifiers();
+
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+            error(method, "The subscriber methods can't be private or static");
+            return false;
+        }
+
+        if (owner.getNestingKind() == NestingKind.ANONYMOUS
+                || owner.getNestingKind() == NestingKind.LOCAL
+                || owner.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "The subscriber methods have to be in a named, non private class");
+            return false;
+        }
+
+        int parameters = method.getParameters().size();
+        if (batch && parameters != 0) {
+            error(method, "The @BatchDelivered method can't have parameters");
+            return false;
+        }
+
+        if (!batch) {
+            if (parameters != 1) {
+                error(method, "The @Subscribe methods have exactly one parameter, the event");
+                return false;
+            }
+
+            TypeMirror type = method.getParameters().get(0).asType();
+            if (type.getKind() != TypeKind.DECLARED
+                    || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+                error(method, "The event has to be a class or an interface without type "
+                        + "arguments");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void write(Subscriber subscriber) {
+        TypeElement owner = subscriber.owner;
+        String packageName = getPackage(owner).getQualifiedName().toString();
+        String target = owner.getQualifiedName().toString();
+        String name = getGeneratedName(owner, packageName);
+
+        StringBuilder code = new StringBuilder();
+        code.append("// Generated by the SubscriberProcessor of the eventbus-compiler, do not edit\n");
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("import ").append(PACKAGE).append(".EventHandler;\n");
+        code.append("import ").append(PACKAGE).append(".EventHandlers;\n\n");
+        code.append("public final class ").append(name).append(" {\n");
+        code.append("    private ").append(name).append("() {}\n\n");
+        code.append("    public static EventHandlers create(final ").append(target)
+                .append(" target) {\n");
+        code.append("        return new EventHandlers()");
+
+        for (ExecutableElement method : subscriber.methods) {
+            TypeMirror event = processingEnv.getTypeUtils().erasure(
+                    method.getParameters().get(0).asType());
+
+            code.append("\n                .on(").append(event).append(".class, ")
+                    .append("new EventHandler<").append(event).append(">() {\n");
+            code.append("                    @Override\n");
+            code.append("                    public void onEvent(").append(event)
+                    .append(" event) {\n");
+            code.append("                        target.").append(method.getSimpleName())
+                    .append("(event);\n");
+            code.append("                    }\n");
+            code.append("                })");
+        }
+
+        if (subscriber.batchMethod != null) {
+            code.append("\n                .onBatchDelivered(new Runnable() {\n");
+            code.append("                    @Override\n");
+            code.append("                    public void run() {\n");
+            code.append("                        target.")
+                    .append(subscriber.batchMethod.getSimpleName()).append("();\n");
+            code.append("                    }\n");
+            code.append("                })");
+        }
+
+        code.append(";\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? name : packageName + "." + name;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, owner);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(code.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            error(owner, "Could not write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /*
+        A nested class Outer.Inner becomes Outer_Inner_EventHandlers
+     */
+    private static String getGeneratedName(TypeElement owner, String packageName) {
+        String name = owner.getQualifiedName().toString();
+        if (!packageName.isEmpty()) {
+            name = name.substring(packageName.length() + 1);
+        }
+
+        return name.replace('.', '_') + SUFFIX;
+    }
+
+    private static PackageElement getPackage(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+
+        return (PackageElement) element;
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class Subscriber {
+        final TypeElement owner;
+        final List<ExecutableElement> methods = new ArrayList<>();
+        ExecutableElement batchMethod;
+
+        Subscriber(TypeElement owner) {
+            this.owner = owner;
+        }
+    }
+}